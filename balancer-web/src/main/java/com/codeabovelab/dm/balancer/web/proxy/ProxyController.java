@@ -18,9 +18,16 @@ package com.codeabovelab.dm.balancer.web.proxy;
 
 import com.codeabovelab.dm.gateway.proxy.common.HttpProxy;
 import com.codeabovelab.dm.gateway.proxy.common.HttpProxyContext;
+import com.codeabovelab.dm.gateway.proxy.common.RequestBodyTooLargeException;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
 import com.netflix.client.config.IClientConfig;
 import com.netflix.loadbalancer.ILoadBalancer;
 import com.netflix.loadbalancer.reactive.LoadBalancerCommand;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +35,9 @@ import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancerContext;
 import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
 import rx.Observable;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.GenericServlet;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
@@ -37,11 +47,15 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.codeabovelab.dm.balancer.web.proxy.RibbonConfiguration.SERVICEID;
 
 /**
- * Rest controller which serves proxy requests
+ * Rest controller which serves proxy requests. <p/>
+ * Requests are processed in async mode: servlet thread is released after sending of request to upstream,
+ * and response is written when upstream client receive it.
  */
 public class ProxyController extends GenericServlet {
 
@@ -53,11 +67,7 @@ public class ProxyController extends GenericServlet {
     private final ILoadBalancer loadBalancer;
     private final HttpClientLoadBalancerErrorHandler requestSpecificRetryHandler;
     private final LoadBalancerCommand.Builder<Object> commandBuilder;
-
-    /**
-     * Ribbon requires not empty result from loadBalancerClient.execute for gathering correct statistics
-     */
-    private static final Observable STUB = Observable.just(new Object());
+    private final long asyncTimeout;
 
 
     @Autowired
@@ -74,6 +84,19 @@ public class ProxyController extends GenericServlet {
                 .withLoadBalancerContext(context)
                 .withClientConfig(clientConfig)
                 .withLoadBalancer(loadBalancer);
+        this.asyncTimeout = getAsyncTimeout(clientConfig);
+    }
+
+    /**
+     * Timeout of async request: time of all attempts which ribbon may do, each attempt is limited by connect and
+     * read timeouts of upstream client.
+     */
+    static long getAsyncTimeout(IClientConfig config) {
+        long attemptTimeout = config.getPropertyAsInteger(CommonClientConfigKey.ConnectTimeout, DefaultClientConfigImpl.DEFAULT_CONNECT_TIMEOUT) +
+                config.getPropertyAsInteger(CommonClientConfigKey.ReadTimeout, DefaultClientConfigImpl.DEFAULT_READ_TIMEOUT);
+        int sameServer = config.getPropertyAsInteger(CommonClientConfigKey.MaxAutoRetries, DefaultClientConfigImpl.DEFAULT_MAX_AUTO_RETRIES);
+        int nextServer = config.getPropertyAsInteger(CommonClientConfigKey.MaxAutoRetriesNextServer, DefaultClientConfigImpl.DEFAULT_MAX_AUTO_RETRIES_NEXT_SERVER);
+        return attemptTimeout * (sameServer + 1) * (nextServer + 1);
     }
 
 
@@ -82,6 +105,16 @@ public class ProxyController extends GenericServlet {
 
         final HttpServletRequest request = (HttpServletRequest) req;
         final HttpServletResponse response = (HttpServletResponse) res;
+        // body is read here, because io threads of upstream client must not block on servlet stream,
+        // also it allow to resend body on retries
+        final HttpEntity entity;
+        try {
+            entity = httpProxy.readEntity(request);
+        } catch (RequestBodyTooLargeException e) {
+            LOG.warn("Reject request to {}: {}", request.getRequestURI(), e.getMessage());
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
         /**
          * A command that is used to produce the Observable from the load balancer execution. The load balancer is responsible for
          * the following:
@@ -91,7 +124,11 @@ public class ProxyController extends GenericServlet {
          * <li>Provide feedback to the {@link com.netflix.loadbalancer.LoadBalancerStats}</li>
          * </ul>
          */
-        commandBuilder.build().submit(instance -> {
+        final AsyncContext asyncContext = request.startAsync();
+        final AtomicBoolean finished = new AtomicBoolean();
+        asyncContext.setTimeout(asyncTimeout);
+        asyncContext.addListener(new TimeoutListener(finished));
+        commandBuilder.build().submit(instance -> Observable.create(subscriber -> {
             try {
                 final URI uri = new URI("http", null, instance.getHost(), instance.getPort(), request.getRequestURI(), null, null);
                 if (LOG.isDebugEnabled()) {
@@ -100,13 +137,103 @@ public class ProxyController extends GenericServlet {
                 final HttpProxyContext proxyContext = new HttpProxyContext(request,
                         response,
                         uri,
-                        Long.toUnsignedString(random.nextLong(), 16) /*TODO Vitaly see history and remove this comment*/);
-                httpProxy.service(proxyContext);
-                return STUB;
+                        Long.toUnsignedString(random.nextLong(), 16) /*TODO Vitaly see history and remove this comment*/,
+                        entity);
+                httpProxy.execute(proxyContext, new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse proxyResponse) {
+                        if (finished.get()) {
+                            // request is already timed out
+                            EntityUtils.consumeQuietly(proxyResponse.getEntity());
+                        } else {
+                            // do not write response in thread of http client, because it block io of other requests
+                            asyncContext.start(() -> writeResponse(asyncContext, finished, proxyContext, proxyResponse));
+                        }
+                        // Ribbon requires not empty result for gathering correct statistics
+                        subscriber.onNext(proxyResponse);
+                        subscriber.onCompleted();
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        subscriber.onError(e);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        subscriber.onError(new CancellationException("Request to " + uri + " is cancelled."));
+                    }
+                });
             } catch (Exception e) {
-                return Observable.error(e);
+                subscriber.onError(e);
+            }
+        })).subscribe(o -> {}, e -> onError(asyncContext, finished, response, e));
+    }
+
+    private void writeResponse(AsyncContext asyncContext, AtomicBoolean finished,
+                               HttpProxyContext proxyContext, HttpResponse proxyResponse) {
+        if (!finished.compareAndSet(false, true)) {
+            EntityUtils.consumeQuietly(proxyResponse.getEntity());
+            return;
+        }
+        try {
+            httpProxy.writeResponse(proxyContext, proxyResponse);
+        } catch (Exception e) {
+            LOG.error("Can not write response of {}", proxyContext.getTarget(), e);
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    private void onError(AsyncContext asyncContext, AtomicBoolean finished, HttpServletResponse response, Throwable e) {
+        LOG.error("Can not proxy request", e);
+        if (finished.compareAndSet(false, true)) {
+            sendError(asyncContext, response, HttpServletResponse.SC_BAD_GATEWAY);
+        }
+    }
+
+    private static void sendError(AsyncContext asyncContext, HttpServletResponse response, int status) {
+        try {
+            if (!response.isCommitted()) {
+                response.sendError(status);
             }
-        }).toBlocking().single();
+        } catch (IOException ioe) {
+            LOG.error("Can not send error", ioe);
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    /**
+     * Respond with 504 when upstream does not answer in time, late response is discarded.
+     */
+    private static final class TimeoutListener implements AsyncListener {
+        private final AtomicBoolean finished;
+
+        TimeoutListener(AtomicBoolean finished) {
+            this.finished = finished;
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            if (finished.compareAndSet(false, true)) {
+                LOG.warn("Proxy request is timed out");
+                sendError(event.getAsyncContext(), (HttpServletResponse) event.getSuppliedResponse(),
+                        HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) throws IOException {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) throws IOException {
+        }
     }
 
     public HttpClientLoadBalancerErrorHandler getRequestSpecificRetryHandler(
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.benchmarks;
+
+import com.codeabovelab.dm.common.fc.FbAdapter;
+import com.codeabovelab.dm.common.fc.FbQueue;
+import com.codeabovelab.dm.common.fc.FbStorage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link FbQueue} on temp-file storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FbQueueBenchmark {
+
+    private static final FbAdapter<String> ADAPTER = new FbAdapter<String>() {
+        @Override
+        public byte[] serialize(String obj) {
+            return obj.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] data, int offset, int len) {
+            return new String(data, offset, len, StandardCharsets.UTF_8);
+        }
+    };
+
+    @Param({"10000"})
+    private int maxSize;
+
+    /**
+     * See {@link FbStorage#getSyncEvery()}
+     */
+    @Param({"0", "64"})
+    private int syncEvery;
+
+    private File dir;
+    private FbStorage storage;
+    private FbQueue<String> queue;
+    private String item;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("fbqueue-bench").toFile();
+        storage = FbStorage.builder()
+          .maxFiles(10)
+          .maxFileSize(16 * 1024 * 1024)
+          .path(dir.getAbsolutePath())
+          .syncEvery(syncEvery)
+          .build();
+        queue = FbQueue.builder(ADAPTER)
+          .id("bench")
+          .maxSize(maxSize)
+          .storage(storage)
+          .build();
+        item = "{\"id\":\"0123456789abcdef\",\"action\":\"start\",\"time\":1480000000000}";
+        // half-filled queue for iteration benchmark
+        for(int i = 0; i < maxSize / 2; ++i) {
+            queue.offer(item);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        queue.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public String offerPoll() {
+        queue.offer(item);
+        return queue.poll();
+    }
+
+    /**
+     * Writer which works concurrently with history readers, see {@link #readWriteReader(Blackhole)}.
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public String readWriteWriter() {
+        queue.offer(item);
+        return queue.poll();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public void readWriteReader(Blackhole bh) {
+        Iterator<String> iter = queue.iterator(100);
+        while(iter.hasNext()) {
+            bh.consume(iter.next());
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void iterate(Blackhole bh) {
+        Iterator<String> iter = queue.iterator();
+        while(iter.hasNext()) {
+            bh.consume(iter.next());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.benchmarks;
+
+import com.codeabovelab.dm.cluman.cluster.docker.management.FrameReader;
+import com.codeabovelab.dm.cluman.cluster.docker.model.Frame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading of multiplexed docker log stream by {@link FrameReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameReaderBenchmark {
+
+    @Param({"10000"})
+    private int frames;
+
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for(int i = 0; i < frames; ++i) {
+            byte[] payload = ("2016-11-24T10:00:00.000000000Z log line number " + i + "\n").getBytes(StandardCharsets.UTF_8);
+            int len = payload.length;
+            // see header format at https://docs.docker.com/engine/api/v1.24/#attach-to-a-container
+            baos.write(i % 2 == 0 ? 1 : 2);
+            baos.write(0);
+            baos.write(0);
+            baos.write(0);
+            baos.write(len >>> 24);
+            baos.write(len >>> 16);
+            baos.write(len >>> 8);
+            baos.write(len);
+            baos.write(payload, 0, len);
+        }
+        data = baos.toByteArray();
+    }
+
+    @Benchmark
+    public void read(Blackhole bh) throws Exception {
+        try(FrameReader reader = new FrameReader(new ByteArrayInputStream(data))) {
+            Frame frame;
+            while((frame = reader.readFrame()) != null) {
+                bh.consume(frame);
+            }
+        }
+    }
+
+    @Benchmark
+    public void readZeroCopy(Blackhole bh) throws Exception {
+        try(FrameReader reader = new FrameReader(new ByteArrayInputStream(data))) {
+            while(reader.next()) {
+                bh.consume(reader.getBuffer());
+                bh.consume(reader.getLength());
+            }
+        }
+    }
+
+    @Benchmark
+    public void readMessages(Blackhole bh) throws Exception {
+        try(FrameReader reader = new FrameReader(new ByteArrayInputStream(data))) {
+            while(reader.next()) {
+                bh.consume(reader.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.benchmarks;
+
+import com.codeabovelab.dm.cluman.cluster.docker.management.JsonStreamProcessor;
+import com.codeabovelab.dm.cluman.cluster.docker.management.StreamContext;
+import com.codeabovelab.dm.cluman.cluster.docker.model.DockerEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of docker events stream by {@link JsonStreamProcessor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonStreamProcessorBenchmark {
+
+    @Param({"1000"})
+    private int events;
+
+    private final JsonStreamProcessor<DockerEvent> processor = new JsonStreamProcessor<>(DockerEvent.class);
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < events; ++i) {
+            sb.append("{\"status\":\"start\",\"id\":\"").append(String.format("%064x", i))
+              .append("\",\"from\":\"nginx:latest\",\"Type\":\"container\",\"Action\":\"start\",")
+              .append("\"Actor\":{\"ID\":\"").append(String.format("%064x", i))
+              .append("\",\"Attributes\":{\"image\":\"nginx:latest\",\"name\":\"web-").append(i).append("\"}},")
+              .append("\"time\":1480000000,\"timeNano\":").append(1480000000000000000L + i).append("}\n");
+        }
+        data = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void process(Blackhole bh) {
+        StreamContext<DockerEvent> context = new StreamContext<>(new ByteArrayInputStream(data), bh::consume);
+        processor.processResponseStream(context);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.benchmarks;
+
+import com.codeabovelab.dm.common.kv.InMemoryKeyValueStorage;
+import com.codeabovelab.dm.common.kv.mapping.KvClassMapper;
+import com.codeabovelab.dm.common.kv.mapping.KvMapperFactory;
+import com.codeabovelab.dm.common.kv.mapping.KvMapping;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.encrypt.Encryptors;
+
+import javax.validation.Validation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and load of object through {@link KvClassMapper} on {@link InMemoryKeyValueStorage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KvClassMapperBenchmark {
+
+    public static class Entry {
+        @KvMapping
+        private String name;
+        @KvMapping
+        private int number;
+        @KvMapping
+        private String description;
+        @KvMapping
+        private List<String> tags;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public void setNumber(int number) {
+            this.number = number;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+
+    private KvClassMapper<Entry> mapper;
+    private Entry entry;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        KvMapperFactory factory = new KvMapperFactory(new ObjectMapper(),
+          new InMemoryKeyValueStorage(),
+          Encryptors.noOpText(),
+          Validation.buildDefaultValidatorFactory().getValidator());
+        mapper = factory.createClassMapper("/bench/entries", Entry.class);
+        entry = new Entry();
+        entry.setName("entry");
+        entry.setNumber(42);
+        entry.setDescription("some description of entry");
+        entry.setTags(Arrays.asList("one", "two", "three"));
+        mapper.save("loaded", entry);
+    }
+
+    @Benchmark
+    public void save() {
+        mapper.save("saved", entry);
+    }
+
+    @Benchmark
+    public Entry load() {
+        return mapper.load("loaded");
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.benchmarks;
+
+import com.codeabovelab.dm.common.mb.MessageBus;
+import com.codeabovelab.dm.common.mb.MessageBuses;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link com.codeabovelab.dm.common.mb.MessageBusImpl#accept(Object)} with different count of subscribers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBusBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int subscribers;
+
+    private MessageBus<String> bus;
+    /**
+     * Subscribers write here for preventing of dead code elimination, races are not matter.
+     */
+    private int received;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bus = MessageBuses.create("bench", String.class);
+        for(int i = 0; i < subscribers; ++i) {
+            bus.subscribe(m -> received += m.length());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        bus.close();
+    }
+
+    @Benchmark
+    public void accept() {
+        bus.accept("message");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void acceptConcurrent() {
+        bus.accept("message");
+    }
+}
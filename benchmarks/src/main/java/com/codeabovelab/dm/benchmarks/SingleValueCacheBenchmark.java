@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.codeabovelab.dm.benchmarks;
+
+import com.codeabovelab.dm.common.utils.SingleValueCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of {@link SingleValueCache#get()} under contention, with fresh value and with value which expire
+ * often, in synchronous and 'stale-while-revalidate' modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleValueCacheBenchmark {
+
+    /**
+     * Time after write in milliseconds, zero cause expiration at each millisecond.
+     */
+    @Param({"0", "60000"})
+    private long ttl;
+
+    @Param({"false", "true"})
+    private boolean background;
+
+    private final AtomicLong loads = new AtomicLong();
+    private ExecutorService executor;
+    private SingleValueCache<Long> cache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        cache = SingleValueCache.builder(loads::incrementAndGet)
+          .timeAfterWrite(ttl)
+          .refreshExecutor(background ? executor : null)
+          .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Long get() {
+        return cache.get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long getConcurrent() {
+        return cache.get();
+    }
+}
@@ -31,6 +31,10 @@ public class BatchUtils {
     // common job parameters
     public static final String JP_CLUSTER = "cluster";
     public static final String JP_ROLLBACK_ENABLE = "rollbackEnable";
+    /**
+     * Max count of containers which is updated simultaneously, default 1.
+     */
+    public static final String JP_BATCH_SIZE = "batchSize";
     public static final String FILTER = "Filter";
 
     /**
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.cluman.batch;
+
+import com.codeabovelab.dm.cluman.job.JobComponent;
+import com.codeabovelab.dm.cluman.job.JobContext;
+import com.codeabovelab.dm.cluman.job.JobParam;
+import com.codeabovelab.dm.common.security.TempAuth;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Apply action to containers, no more than {@link BatchUtils#JP_BATCH_SIZE} containers is processed simultaneously,
+ * so it also is a max count of containers which can be unavailable at once. <p/>
+ * When action return false or throw exception then no new containers will be processed,
+ * but runner wait end of already started. Default batch size is 1, that mean sequential processing in caller thread.
+ */
+@JobComponent
+class ContainerBatchRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContainerBatchRunner.class);
+
+    @Autowired
+    private JobContext jobContext;
+
+    @JobParam(BatchUtils.JP_BATCH_SIZE)
+    private int batchSize = 1;
+
+    /**
+     * Process containers.
+     * @param containers containers
+     * @param action action, must return false when processing must be stopped
+     * @return true when all containers is processed, false when any action return false
+     * @throws RuntimeException first exception thrown by action
+     */
+    public boolean run(List<ProcessedContainer> containers, Predicate<ProcessedContainer> action) {
+        int threads = Math.min(batchSize, containers.size());
+        if(threads <= 1) {
+            for(ProcessedContainer container: containers) {
+                if(!apply(container, action)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(jobContext.getId() + "-batch-%d")
+          .build());
+        try {
+            return runParallel(executor, threads, containers, action);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean runParallel(ExecutorService executor, int threads,
+                                List<ProcessedContainer> containers,
+                                Predicate<ProcessedContainer> action) {
+        CompletionService<Boolean> cs = new ExecutorCompletionService<>(executor);
+        final Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Iterator<ProcessedContainer> iter = containers.iterator();
+        int started = 0;
+        boolean ok = true;
+        Throwable error = null;
+        while(true) {
+            while(ok && error == null && started < threads && iter.hasNext()) {
+                ProcessedContainer container = iter.next();
+                cs.submit(() -> {
+                    JobContext.set(jobContext);
+                    try(TempAuth ta = TempAuth.open(auth)) {
+                        return apply(container, action);
+                    } finally {
+                        JobContext.remove();
+                    }
+                });
+                started++;
+            }
+            if(started == 0) {
+                break;
+            }
+            try {
+                Future<Boolean> future = cs.take();
+                started--;
+                ok &= future.get();
+            } catch (ExecutionException e) {
+                if(error == null) {
+                    error = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while processing containers.", e);
+            }
+        }
+        if(error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if(error instanceof Error) {
+            throw (Error) error;
+        }
+        if(error != null) {
+            throw new IllegalStateException(error);
+        }
+        return ok;
+    }
+
+    private boolean apply(ProcessedContainer container, Predicate<ProcessedContainer> action) {
+        try {
+            return action.test(container);
+        } catch (RuntimeException e) {
+            jobContext.fire("Error on container {0}", container);
+            LOG.error("Error on container {}", container, e);
+            throw e;
+        }
+    }
+}
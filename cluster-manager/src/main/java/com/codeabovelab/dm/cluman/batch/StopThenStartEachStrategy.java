@@ -59,6 +59,9 @@ class StopThenStartEachStrategy {
     @Autowired
     private ContainerConfigTasklet containerConfig;
 
+    @Autowired
+    private ContainerBatchRunner batchRunner;
+
     @JobParam(BatchUtils.JP_ROLLBACK_ENABLE)
     private boolean rollbackEnable;
 
@@ -73,26 +76,22 @@ class StopThenStartEachStrategy {
     }
 
     protected void updateContainer(List<ProcessedContainer> containers, ContainerProcessor processor) {
-        boolean needRollback = this.rollbackEnable;
-        ProcessedContainer curr = null;
+        boolean needRollback;
         try {
-            for(ProcessedContainer container: containers) {
+            needRollback = !batchRunner.run(containers, (container) -> {
                 ProcessedContainer withConfig = containerConfig.process(container);
                 containerStopper.execute(container);
                 containerRemover.execute(container);
                 ProcessedContainer newVersion = processor.apply(withConfig);
                 ProcessedContainer newContainer = containerCreator.execute(newVersion);
-                if(!healthchecker.execute(newContainer) && (needRollback = this.rollbackEnable)) {
-                    break;
-                }
-            }
+                return healthchecker.execute(newContainer) || !this.rollbackEnable;
+            });
         } catch (Exception e) {
             needRollback = this.rollbackEnable;
             if(needRollback) {
-                jobContext.fire("Error on container {0}, try rollback", curr);
-                LOG.error("Error on container {}, try rollback", curr, e);
+                jobContext.fire("Error on update, try rollback");
+                LOG.error("Error on update, try rollback", e);
             } else {
-                jobContext.fire("Error on container {0}", curr);
                 throw e;
             }
         }
@@ -65,16 +65,18 @@ public class UpdateStartThenStopEachJob implements Runnable {
     @Autowired
     private ContainerConfigTasklet containerConfig;
 
+    @Autowired
+    private ContainerBatchRunner batchRunner;
+
     @JobParam(BatchUtils.JP_ROLLBACK_ENABLE)
     private boolean rollbackEnable;
 
     @Override
     public void run() {
         List<ProcessedContainer> containers = loader.getContainers(predicate);
-        boolean needRollback = false;
-        ProcessedContainer curr = null;
+        boolean needRollback;
         try {
-            for(ProcessedContainer container: containers) {
+            needRollback = !batchRunner.run(containers, (container) -> {
                 ProcessedContainer withConfig = containerConfig.process(container);
                 ProcessedContainer newContainer = imageUpgrader.execute(withConfig);
                 // we must reset name, due to conflicts
@@ -84,17 +86,16 @@ public class UpdateStartThenStopEachJob implements Runnable {
                 if(healthchecker.execute(createdContainer)) {
                     containerStopper.execute(container);
                     containerRemover.execute(container);
-                } else if(needRollback = this.rollbackEnable) {
-                    break;
+                    return true;
                 }
-            }
+                return !this.rollbackEnable;
+            });
         } catch (Exception e) {
             needRollback = this.rollbackEnable;
             if(needRollback) {
-                jobContext.fire("Error on container {0}, try rollback", curr);
-                LOG.error("Error on container {}, try rollback", curr, e);
+                jobContext.fire("Error on update, try rollback");
+                LOG.error("Error on update, try rollback", e);
             } else {
-                jobContext.fire("Error on container {0}", curr);
                 throw e;
             }
         }
@@ -24,9 +24,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 
 /**
  * Stop all containers, then make updated copy for each and start.
@@ -68,38 +68,34 @@ public class UpdateStopThenStartAllJob implements Runnable {
     private TargetVersionPredicate predicate;
     @Autowired
     private ContainerConfigTasklet containerConfig;
+    @Autowired
+    private ContainerBatchRunner batchRunner;
 
     @Override
     public void run() {
         List<ProcessedContainer> containers = loader.getContainers(predicate);
-        boolean needRollback = false;
-        ProcessedContainer curr = null;
+        boolean needRollback;
         try {
-            ListIterator<ProcessedContainer> i = containers.listIterator();
-            while(i.hasNext()) {
-                ProcessedContainer container = i.next();
-                curr = container;
+            // stopped containers with config, order may differ from source
+            List<ProcessedContainer> stopped = Collections.synchronizedList(new ArrayList<>(containers.size()));
+            batchRunner.run(containers, (container) -> {
                 container = containerConfig.process(container);
-                i.set(container);//we replace old container with config
                 containerStopper.execute(container);
                 containerRemover.execute(container);
-            }
-            for(ProcessedContainer container: containers) {
-                curr = container;
+                stopped.add(container);
+                return true;
+            });
+            needRollback = !batchRunner.run(stopped, (container) -> {
                 ProcessedContainer newContainer = imageUpgrader.execute(container);
-                curr = newContainer;
                 ProcessedContainer createdContainer = containerCreator.execute(newContainer);
-                if(!healthchecker.execute(createdContainer) && (needRollback = this.rollbackEnable)) {
-                    break;
-                }
-            }
+                return healthchecker.execute(createdContainer) || !this.rollbackEnable;
+            });
         } catch (Exception e) {
             needRollback = this.rollbackEnable;
             if(needRollback) {
-                jobContext.fire("Error on container {0}, try rollback", curr);
-                LOG.error("Error on container {}, try rollback", curr, e);
+                jobContext.fire("Error on update, try rollback");
+                LOG.error("Error on update, try rollback", e);
             } else {
-                jobContext.fire("Error on container {0}", curr);
                 throw e;
             }
         }
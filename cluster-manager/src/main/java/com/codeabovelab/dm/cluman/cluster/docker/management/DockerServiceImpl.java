@@ -53,6 +53,7 @@ import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -83,6 +84,10 @@ public class DockerServiceImpl implements DockerService {
          * At this interceptor you may modify building of {@link DockerServiceInfo}
          */
         private Consumer<DockerServiceInfo.Builder> infoInterceptor;
+        /**
+         * Executor for background refreshing of info, when it is null info is refreshed synchronously.
+         */
+        private Executor infoRefreshExecutor;
 
         public Builder node(String node) {
             setNode(node);
@@ -119,6 +124,11 @@ public class DockerServiceImpl implements DockerService {
             return this;
         }
 
+        public Builder infoRefreshExecutor(Executor infoRefreshExecutor) {
+            setInfoRefreshExecutor(infoRefreshExecutor);
+            return this;
+        }
+
         public DockerServiceImpl build() {
             return new DockerServiceImpl(this);
         }
@@ -163,6 +173,7 @@ public class DockerServiceImpl implements DockerService {
         this.maxTimeout = Math.max(TimeUnit.SECONDS.toMillis(clusterConfig.getDockerTimeout()), FAST_TIMEOUT * 10);
         this.infoCache = SingleValueCache.builder(this::getInfoForCache)
                 .timeAfterWrite(TimeUnit.SECONDS, this.clusterConfig.getCacheTimeAfterWrite())
+                .refreshExecutor(b.infoRefreshExecutor)
                 .build();
     }
 
@@ -22,22 +22,34 @@ import com.codeabovelab.dm.cluman.cluster.docker.model.StreamType;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 /**
  * Breaks the input into frame. Similar to how a buffered reader would readLies.
  * <p/>
+ * Reader use one buffer for all frames, therefore {@link #next()} with {@link #getBuffer()} allow to read
+ * frames without copying. {@link #readFrame()} return copy of data in each frame.
+ * <p/>
  * See: {@link }http://docs.docker.com/v1.6/reference/api/docker_remote_api_v1.13/#attach-to-a-container}
  */
 public class FrameReader implements AutoCloseable {
 
     private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    /**
+     * Buffer which is grown for big frame, will be released after it, when it greater than this value.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
 
     private final InputStream inputStream;
 
     private boolean rawStreamDetected = false;
 
-    private final byte[] rawBuffer = new byte[1000];
+    private final byte[] header = new byte[HEADER_SIZE];
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private StreamType streamType;
+    private int length;
 
     public FrameReader(InputStream inputStream) {
         this.inputStream = inputStream;
@@ -60,61 +72,112 @@ public class FrameReader implements AutoCloseable {
      * @return A frame, or null if no more frames.
      */
     public Frame readFrame() throws IOException {
+        if (!next()) {
+            return null;
+        }
+        return new Frame(streamType, Arrays.copyOf(buffer, length));
+    }
 
+    /**
+     * Read next frame into internal buffer. Data of previous frame is overwritten.
+     * @return false if no more frames
+     * @throws IOException on io error or when stream is truncated
+     */
+    public boolean next() throws IOException {
         if (rawStreamDetected) {
-
-            int read = inputStream.read(rawBuffer);
+            if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                buffer = new byte[INITIAL_BUFFER_SIZE];
+            }
+            int read = inputStream.read(buffer);
             if (read == -1) {
-                return null;
+                return false;
             }
+            this.length = read;
+            return true;
+        }
 
-            return new Frame(StreamType.RAW, Arrays.copyOf(rawBuffer, read));
+        int actualHeaderSize = 0;
+        do {
+            int headerCount = inputStream.read(header, actualHeaderSize, HEADER_SIZE - actualHeaderSize);
 
-        } else {
+            if (headerCount == -1) {
+                return false;
+            }
+            actualHeaderSize += headerCount;
+        } while (actualHeaderSize < HEADER_SIZE);
 
-            byte[] header = new byte[HEADER_SIZE];
+        // HexDump.dump(header, 0, System.err, 0);
 
-            int actualHeaderSize = 0;
+        StreamType streamType = streamType(header[0]);
 
-            do {
-                int headerCount = inputStream.read(header, actualHeaderSize, HEADER_SIZE - actualHeaderSize);
+        if (streamType.equals(StreamType.RAW)) {
+            rawStreamDetected = true;
+            System.arraycopy(header, 0, buffer, 0, HEADER_SIZE);
+            this.streamType = StreamType.RAW;
+            this.length = HEADER_SIZE;
+            return true;
+        }
 
-                if (headerCount == -1) {
-                    return null;
-                }
-                actualHeaderSize += headerCount;
-            } while (actualHeaderSize < HEADER_SIZE);
+        int payloadSize = ((header[4] & 0xff) << 24) + ((header[5] & 0xff) << 16) + ((header[6] & 0xff) << 8)
+                + (header[7] & 0xff);
 
-            // HexDump.dump(header, 0, System.err, 0);
+        ensureCapacity(payloadSize);
+        int actualPayloadSize = 0;
 
-            StreamType streamType = streamType(header[0]);
+        while (actualPayloadSize < payloadSize) {
+            int count = inputStream.read(buffer, actualPayloadSize, payloadSize - actualPayloadSize);
 
-            if (streamType.equals(StreamType.RAW)) {
-                rawStreamDetected = true;
-                return new Frame(StreamType.RAW, Arrays.copyOf(header, HEADER_SIZE));
+            if (count == -1) {
+                throw new IOException(String.format("payload must be %d bytes long, but was %d", payloadSize,
+                        actualPayloadSize));
             }
+            actualPayloadSize += count;
+        }
 
-            int payloadSize = ((header[4] & 0xff) << 24) + ((header[5] & 0xff) << 16) + ((header[6] & 0xff) << 8)
-                    + (header[7] & 0xff);
+        this.streamType = streamType;
+        this.length = payloadSize;
+        return true;
+    }
 
-            byte[] payload = new byte[payloadSize];
-            int actualPayloadSize = 0;
+    private void ensureCapacity(int size) {
+        if (size > buffer.length) {
+            buffer = new byte[Math.max(size, buffer.length * 2)];
+        } else if (buffer.length > MAX_RETAINED_BUFFER_SIZE && size <= INITIAL_BUFFER_SIZE) {
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        }
+    }
 
-            do {
-                int count = inputStream.read(payload, actualPayloadSize, payloadSize - actualPayloadSize);
+    /**
+     * Type of stream of last read frame.
+     * @return type of stream
+     */
+    public StreamType getStreamType() {
+        return streamType;
+    }
+
+    /**
+     * Buffer which contains payload of last read frame from zero to {@link #getLength()} offset.
+     * Buffer is reused by next frame, so it must not be retained.
+     * @return internal buffer
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
 
-                if (count == -1) {
-                    if (actualPayloadSize != payloadSize) {
-                        throw new IOException(String.format("payload must be %d bytes long, but was %d", payloadSize,
-                                actualPayloadSize));
-                    }
-                    break;
-                }
-                actualPayloadSize += count;
-            } while (actualPayloadSize < payloadSize);
+    /**
+     * Length of payload of last read frame.
+     * @return length in bytes
+     */
+    public int getLength() {
+        return length;
+    }
 
-            return new Frame(streamType, payload);
-        }
+    /**
+     * Payload of last read frame as string, see {@link Frame#getMessage()}.
+     * @return trimmed string
+     */
+    public String getMessage() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8).trim();
     }
 
     @Override
@@ -122,4 +185,4 @@ public class FrameReader implements AutoCloseable {
         inputStream.close();
     }
 
-}
\ No newline at end of file
+}
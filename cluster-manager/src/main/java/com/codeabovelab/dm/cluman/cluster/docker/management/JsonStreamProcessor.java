@@ -20,8 +20,9 @@ import com.codeabovelab.dm.common.utils.Throwables;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import org.slf4j.Logger;
@@ -29,23 +30,37 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+/**
+ * Read stream of json objects and bind each one directly from parser into specified class.
+ * Items which can not be bound and failures of watcher are logged and skipped, so they do not break the stream.
+ * Count of skipped items is available through {@link #getMalformedCount()}, because streams like events may be
+ * endless it also periodically logged.
+ */
 public class JsonStreamProcessor<T> implements ResponseStreamProcessor<T> {
 
     private static final Logger LOG = LoggerFactory.getLogger(JsonStreamProcessor.class);
 
     private static final JsonFactory JSON_FACTORY = new JsonFactory();
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /**
+     * Running count of malformed items is logged after each this number of items.
+     */
+    private static final long MALFORMED_LOG_PERIOD = 100;
 
     static {
         OBJECT_MAPPER.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, true);
     }
 
     private final Class<T> clazz;
+    private final ObjectReader reader;
+    private final AtomicLong malformedCount = new AtomicLong();
 
     public JsonStreamProcessor(Class<T> clazz) {
         this.clazz = clazz;
+        this.reader = OBJECT_MAPPER.readerFor(clazz);
     }
 
     @Override
@@ -55,28 +70,45 @@ public class JsonStreamProcessor<T> implements ResponseStreamProcessor<T> {
         final Thread thread = Thread.currentThread();
         SettableFuture<Boolean> interrupter = context.getInterrupter();
         interrupter.addListener(() -> thread.interrupt(), MoreExecutors.directExecutor());
+        long skipped = 0;
         try {
             JsonParser jp = JSON_FACTORY.createParser(response);
-            Boolean closed = jp.isClosed();
             JsonToken nextToken = jp.nextToken();
-            while (!closed && nextToken != null && nextToken != JsonToken.END_OBJECT && !interrupter.isDone()) {
-                try {
-                    ObjectNode objectNode = OBJECT_MAPPER.readTree(jp);
+            while (!jp.isClosed() && nextToken != null && nextToken != JsonToken.END_OBJECT && !interrupter.isDone()) {
+                if(nextToken == JsonToken.START_OBJECT && jp.nextToken() == JsonToken.END_OBJECT) {
                     // exclude empty item serialization into class #461
-                    if (!objectNode.isEmpty(null)) {
-                        T next = OBJECT_MAPPER.treeToValue(objectNode, clazz);
-                        LOG.trace("Monitor value: {}", next);
-                        watcher.accept(next);
+                    nextToken = jp.nextToken();
+                    continue;
+                }
+                // here parser may point to first field of object, deserializer can continue from it
+                T next;
+                try {
+                    next = reader.readValue(jp);
+                } catch (JsonMappingException e) {
+                    skipped++;
+                    long total = malformedCount.incrementAndGet();
+                    LOG.warn("Can not deserialize item into {}: {}", clazz.getSimpleName(), e.toString());
+                    if(total % MALFORMED_LOG_PERIOD == 0) {
+                        LOG.warn("Skipped {} malformed items of {} in all streams.", total, clazz.getSimpleName());
                     }
+                    skipItem(jp);
+                    nextToken = jp.nextToken();
+                    continue;
+                }
+                LOG.trace("Monitor value: {}", next);
+                try {
+                    watcher.accept(next);
                 } catch (Exception e) {
+                    LOG.error("Watcher can not accept item: {}", next, e);
                 }
-
-                closed = jp.isClosed();
                 nextToken = jp.nextToken();
             }
         } catch (Throwable t) {
             throw Throwables.asRuntime(t);
         } finally {
+            if(skipped > 0) {
+                LOG.warn("Skipped {} malformed items of {} in stream.", skipped, clazz.getSimpleName());
+            }
             try {
                 response.close();
             } catch (IOException e) {
@@ -87,4 +119,23 @@ public class JsonStreamProcessor<T> implements ResponseStreamProcessor<T> {
 
     }
 
+    /**
+     * Count of items which can not be bound, over all streams processed by this instance.
+     * @return count of skipped items
+     */
+    public long getMalformedCount() {
+        return malformedCount.get();
+    }
+
+    /**
+     * Move parser to the end of current top-level item.
+     */
+    private static void skipItem(JsonParser jp) throws IOException {
+        while (!jp.getParsingContext().inRoot()) {
+            if (jp.nextToken() == null) {
+                return;
+            }
+        }
+    }
+
 }
@@ -17,7 +17,6 @@
 package com.codeabovelab.dm.cluman.cluster.docker.management;
 
 import com.codeabovelab.dm.cluman.cluster.docker.management.result.ProcessEvent;
-import com.codeabovelab.dm.cluman.cluster.docker.model.Frame;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import org.slf4j.Logger;
@@ -38,14 +37,15 @@ public class ProcessEventProcessor implements ResponseStreamProcessor<ProcessEve
         interrupter.addListener(() -> Thread.currentThread().interrupt(), MoreExecutors.directExecutor());
         try (FrameReader frameReader = new FrameReader(response)) {
 
-            Frame frame = frameReader.readFrame();
-            while (frame != null && !interrupter.isDone()) {
+            // we read frames without copying, because only message is needed
+            boolean hasFrame = frameReader.next();
+            while (hasFrame && !interrupter.isDone()) {
                 try {
-                    ProcessEvent.watchRaw(watcher, frame.getMessage(), false);
+                    ProcessEvent.watchRaw(watcher, frameReader.getMessage(), false);
                 } catch (Exception e) {
                     LOG.error("Cannot read body", e);
                 } finally {
-                    frame = frameReader.readFrame();
+                    hasFrame = frameReader.next();
                 }
             }
         } catch (Exception t) {
@@ -50,6 +50,11 @@ public class DockerEvent {
 
     private long time;
 
+    /**
+     * Time of event in nanoseconds, it absent in old versions of API.
+     */
+    private long timeNano;
+
     /**
      * Returns the node when working against docker swarm
      */
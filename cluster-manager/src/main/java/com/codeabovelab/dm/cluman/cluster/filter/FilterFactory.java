@@ -17,7 +17,15 @@
 package com.codeabovelab.dm.cluman.cluster.filter;
 
 import com.codeabovelab.dm.common.utils.StringUtils;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
@@ -40,6 +48,16 @@ public class FilterFactory {
         }
     }
 
+    /**
+     * Parser in 'mixed' mode: expression is compiled after some interpretations, and return to interpreted
+     * mode when compiled form is fail.
+     */
+    private static final SpelExpressionParser SPEL_PARSER = new SpelExpressionParser(
+      new SpelParserConfiguration(SpelCompilerMode.MIXED, FilterFactory.class.getClassLoader()));
+    private static final LoadingCache<String, SpelExpression> SPEL_CACHE = CacheBuilder.newBuilder()
+      .maximumSize(1024)
+      .build(CacheLoader.from(SPEL_PARSER::parseRaw));
+
     private final ConcurrentMap<String, Factory> factories = new ConcurrentHashMap<>();
 
     public FilterFactory() {
@@ -78,4 +96,24 @@ public class FilterFactory {
         return ff.create(expr.substring(proto.length() + 1));
     }
 
+    /**
+     * Parse SpEL expression or return already parsed expression from cache. Returned expression is shared
+     * between callers, so it must not be modified.
+     * @param expr expression string
+     * @return parsed expression
+     * @throws org.springframework.expression.ParseException when expression is invalid
+     */
+    public static SpelExpression parseSpel(String expr) {
+        Assert.notNull(expr, "expr is null");
+        try {
+            return SPEL_CACHE.getUnchecked(expr);
+        } catch (UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
 }
@@ -63,6 +63,7 @@ public class RegistriesConfiguration {
         defaultRegistryConf.setReadOnly(true);
         DockerHubRegistry defaultRegistry = registryFactory.createPublicHubRegistryService(defaultRegistryConf);
         RegistryRepository registryRepository = new RegistryRepository(factory, defaultRegistry, registryFactory, messageBus);
+        registryRepository.setQueryTimeout(regProps.getQueryTimeout());
 
         List<RegistryConfig> args = new ArrayList<>();
         args.addAll(MoreObjects.firstNonNull(regProps.getPrivateRegistry(), Collections.emptyList()));
@@ -35,6 +35,11 @@ public class RegistriesProperties {
      */
     private boolean syncInit = false;
 
+    /**
+     * Time in milliseconds which is given to registries for answer to search or catalog query.
+     */
+    private long queryTimeout = 10_000L;
+
     private List<PrivateRegistryConfig> privateRegistry;
     private List<HubRegistryConfig> hubRegistry;
     private List<AwsRegistryConfig> awsRegistry;
@@ -33,17 +33,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class RegistryFactory implements DisposableBean {
 
+    private static final ThreadLocal<Integer> READ_TIMEOUT_LIMIT = new ThreadLocal<>();
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -108,13 +113,36 @@ public class RegistryFactory implements DisposableBean {
                 .build());
     }
 
+    /**
+     * Invoke supplier with read timeout of registry clients limited by specified value. It affect only calls
+     * which are made by current thread in supplier, other calls use default read timeout. <p/>
+     * Queries of registry repository are cancelled after its timeout, but cancellation does not interrupt
+     * blocking io, therefore client must not wait longer.
+     * @param timeout timeout in milliseconds
+     * @param supplier code which call registries
+     * @return result of supplier
+     */
+    public static <T> T withReadTimeout(long timeout, Supplier<T> supplier) {
+        Integer old = READ_TIMEOUT_LIMIT.get();
+        READ_TIMEOUT_LIMIT.set((int) Math.min(timeout, Integer.MAX_VALUE));
+        try {
+            return supplier.get();
+        } finally {
+            if(old == null) {
+                READ_TIMEOUT_LIMIT.remove();
+            } else {
+                READ_TIMEOUT_LIMIT.set(old);
+            }
+        }
+    }
+
     public RestTemplate restTemplate(RegistryAuthAdapter registryAuthAdapter) {
         RestTemplate restTemplate = new RestTemplate();
         List<HttpMessageConverter<?>> converters = restTemplate.getMessageConverters();
-        SimpleClientHttpRequestFactory rf =
-                (SimpleClientHttpRequestFactory) restTemplate.getRequestFactory();
+        SimpleClientHttpRequestFactory rf = new LimitedRequestFactory();
         rf.setReadTimeout(readTimeOut);
         rf.setConnectTimeout(connectTimeOut);
+        restTemplate.setRequestFactory(rf);
 
         restTemplate.setInterceptors(Collections.singletonList(new RegistryAuthInterceptor(registryAuthAdapter)));
 
@@ -177,4 +205,22 @@ public class RegistryFactory implements DisposableBean {
         return scheduledExecutorService;
     }
 
+    /**
+     * Request factory which apply limit from {@link #withReadTimeout(long, Supplier)}.
+     */
+    private static final class LimitedRequestFactory extends SimpleClientHttpRequestFactory {
+        @Override
+        protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+            super.prepareConnection(connection, httpMethod);
+            Integer limit = READ_TIMEOUT_LIMIT.get();
+            if(limit == null || limit <= 0) {
+                return;
+            }
+            int readTimeout = connection.getReadTimeout();
+            if(readTimeout == 0 /* infinite */ || limit < readTimeout) {
+                connection.setReadTimeout(limit);
+            }
+        }
+    }
+
 }
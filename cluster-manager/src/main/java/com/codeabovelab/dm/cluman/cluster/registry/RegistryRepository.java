@@ -32,6 +32,7 @@ import com.codeabovelab.dm.cluman.reconfig.ReConfigurable;
 import com.codeabovelab.dm.common.validate.ValidityException;
 import com.codeabovelab.dm.common.mb.MessageBus;
 import com.codeabovelab.dm.common.utils.Closeables;
+import com.codeabovelab.dm.common.utils.TimedTask;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -43,16 +44,22 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @ReConfigurable
 public class RegistryRepository implements SupportSearch {
 
+    /**
+     * Max count of registries which is queried simultaneously.
+     */
+    private static final int QUERY_THREADS = 16;
     // we need save order of map elements, so use LinkedHashMap, it affects a search results order
-    private final Map<String, RegistryService> registryServiceMap = Collections.synchronizedMap(new LinkedHashMap<>());
+    // map is replaced by modified copy on each change, therefore reads do not need any locks
+    private volatile Map<String, RegistryService> registryServiceMap = Collections.emptyMap();
+    private final Object registryServiceLock = new Object();
     //docker hub registry
     private final DockerHubRegistry defaultRegistry;
     private final KvClassMapper<RegistryConfig> classMapper;
@@ -60,6 +67,8 @@ public class RegistryRepository implements SupportSearch {
     private final MessageBus<RegistryEvent> eventBus;
     private final RegistryFactory factory;
     private final ExecutorService executorService;
+    private final ExecutorService queryExecutor;
+    private volatile long queryTimeout = TimeUnit.SECONDS.toMillis(10);
 
     public RegistryRepository(KvMapperFactory classMapper,
                               DockerHubRegistry defaultRegistry,
@@ -74,6 +83,19 @@ public class RegistryRepository implements SupportSearch {
           .setDaemon(true)
           .setNameFormat(getClass().getSimpleName() + "-eventDispatcher-%d")
           .build());
+        this.queryExecutor = Executors.newFixedThreadPool(QUERY_THREADS, new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(getClass().getSimpleName() + "-query-%d")
+          .build());
+    }
+
+    /**
+     * Time in milliseconds which is given to registries for answer to search or catalog query.
+     * Registries which does not answer in time is excluded from result.
+     * @param queryTimeout timeout in milliseconds
+     */
+    public void setQueryTimeout(long queryTimeout) {
+        this.queryTimeout = queryTimeout;
     }
 
     public void init(List<RegistryConfig> configs) {
@@ -140,7 +162,12 @@ public class RegistryRepository implements SupportSearch {
     private void internalRegister(RegistryService service) {
         String name = service.getConfig().getName();
         Assert.notNull(name, "Config should have non empty name." +  service.getConfig());
-        RegistryService old = registryServiceMap.put(name, service);
+        RegistryService old;
+        synchronized (registryServiceLock) {
+            Map<String, RegistryService> map = new LinkedHashMap<>(registryServiceMap);
+            old = map.put(name, service);
+            registryServiceMap = Collections.unmodifiableMap(map);
+        }
         if(old != service) {
             if(service instanceof AbstractV2RegistryService) {
                 ((AbstractV2RegistryService)service).setEventConsumer(this::dispatchEvent);
@@ -164,7 +191,12 @@ public class RegistryRepository implements SupportSearch {
     }
 
     public void unRegister(String name) {
-        RegistryService registryService = registryServiceMap.remove(name);
+        RegistryService registryService;
+        synchronized (registryServiceLock) {
+            Map<String, RegistryService> map = new LinkedHashMap<>(registryServiceMap);
+            registryService = map.remove(name);
+            registryServiceMap = Collections.unmodifiableMap(map);
+        }
         Assert.notNull(registryService, "registryService must not null");
         Closeables.closeIfCloseable(registryService);
         classMapper.delete(name);
@@ -197,15 +229,22 @@ public class RegistryRepository implements SupportSearch {
         if (CollectionUtils.isEmpty(names)) {
             names = getAvailableRegistries();
         }
-        List<ImageCatalog> collect = names.stream()
+        List<String> filtered = names.stream()
                 .filter(f -> !getRegistry(f).getConfig().isDisabled())
                 .filter(f -> !StringUtils.hasText(getRegistry(f).getConfig().getErrorMessage()))
                 .filter(f -> !(getRegistry(f) instanceof DockerHubRegistry))
-                .map(n -> {
-            ImageCatalog imageCatalog = getRegistry(n).getCatalog();
-            imageCatalog.setName(n);
-            return imageCatalog;
-        }).collect(Collectors.toList());
+                .collect(Collectors.toList());
+        List<RegistryService> services = filtered.stream().map(this::getRegistry).collect(Collectors.toList());
+        List<ImageCatalog> catalogs = queryAll(services, RegistryService::getCatalog, "catalog");
+        List<ImageCatalog> collect = new ArrayList<>(catalogs.size());
+        for (int i = 0; i < catalogs.size(); i++) {
+            ImageCatalog imageCatalog = catalogs.get(i);
+            if (imageCatalog == null) {
+                continue;
+            }
+            imageCatalog.setName(filtered.get(i));
+            collect.add(imageCatalog);
+        }
         return collect;
     }
 
@@ -298,14 +337,87 @@ public class RegistryRepository implements SupportSearch {
 
     @Override
     public SearchResult search(String query, final int page, final int size) {
+        List<RegistryService> services = new ArrayList<>(registryServiceMap.values());
+        services.add(defaultRegistry);
+        return search(services, query, page, size);
+    }
+
+    /**
+     * Search in specified registries. Registries are queried concurrently, but order of results
+     * is same as order of registries.
+     * @param services registries
+     * @param query search query
+     * @param page page
+     * @param size size of page
+     * @return result, it does not contain results of failed registries
+     */
+    public SearchResult search(List<RegistryService> services, String query, final int page, final int size) {
         RegistrySearchHelper rsh = new RegistrySearchHelper(query, page, size);
-        for(RegistryService service: registryServiceMap.values()) {
-            rsh.search(service);
+        List<List<SearchResult.Result>> results = queryAll(services, rsh::load, "search \"" + query + "\"");
+        for(List<SearchResult.Result> result: results) {
+            rsh.add(result);
         }
-        rsh.search(defaultRegistry);
         return rsh.collect();
     }
 
+    /**
+     * Execute query on each registry concurrently, and wait result of each registry no more than
+     * {@link #setQueryTimeout(long)} after start of its query. Whole call, include time which queries spent in
+     * queue of executor, is limited by twice of query timeout.
+     * @param services registries
+     * @param query function which do query on registry
+     * @param desc description of query, used in log
+     * @return results in order of registries, it contains null for failed or timed out registries
+     */
+    private <T> List<T> queryAll(List<RegistryService> services, Function<RegistryService, T> query, String desc) {
+        if(services.size() == 1) {
+            // no reason to use other thread
+            return Collections.singletonList(queryOne(services.get(0), query, desc));
+        }
+        List<TimedTask<T>> tasks = new ArrayList<>(services.size());
+        for(RegistryService service: services) {
+            tasks.add(TimedTask.submit(queryExecutor, () -> queryOne(service, query, desc), queryTimeout));
+        }
+        List<T> results = new ArrayList<>(services.size());
+        final long deadline = System.currentTimeMillis() + queryTimeout * 2;
+        try {
+            for(int i = 0; i < tasks.size(); i++) {
+                TimedTask<T> task = tasks.get(i);
+                T result = null;
+                try {
+                    result = task.get(deadline);
+                } catch (TimeoutException e) {
+                    log.warn("Registry \"{}\" does not answer to {} in {} ms.", getName(services.get(i)), desc, task.getTimeout());
+                } catch (ExecutionException e) {
+                    // usually queryOne handle errors itself
+                    log.error("Registry \"{}\" failed on {}", getName(services.get(i)), desc, e.getCause());
+                }
+                results.add(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting of " + desc, e);
+        } finally {
+            tasks.forEach(TimedTask::cancel);
+        }
+        return results;
+    }
+
+    private <T> T queryOne(RegistryService service, Function<RegistryService, T> query, String desc) {
+        try {
+            // query is abandoned after timeout, so its client calls must not wait longer
+            return RegistryFactory.withReadTimeout(queryTimeout, () -> query.apply(service));
+        } catch (Exception e) {
+            log.error("Registry \"{}\" failed on {}", getName(service), desc, e);
+            return null;
+        }
+    }
+
+    private static String getName(RegistryService service) {
+        RegistryConfig config = service.getConfig();
+        return config == null ? null : config.getName();
+    }
+
     @ReConfigObject
     private RegistriesConfig getConfig() {
         List<RegistryConfig> configs = registryServiceMap.entrySet().stream().map(e -> {
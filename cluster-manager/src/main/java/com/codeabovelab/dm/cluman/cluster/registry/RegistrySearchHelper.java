@@ -53,6 +53,16 @@ public class RegistrySearchHelper {
     }
 
     public void search(RegistryService service) {
+        add(load(service));
+    }
+
+    /**
+     * Load results from service. It does not change state of helper, therefore can be called concurrently.
+     * @param service registry
+     * @return list of results, may be incomplete when service fail
+     */
+    public List<SearchResult.Result> load(RegistryService service) {
+        List<SearchResult.Result> loaded = new ArrayList<>();
         //service may return small peace of result instead of all
         // but we do not want to make too many requests
         int count = MAX_PAGES;
@@ -63,26 +73,38 @@ public class RegistrySearchHelper {
             SearchResult tmp = service.search(query, page, pageSize);
             if(tmp == null) {
                 log.warn("Search \"{}\" on {} will ended with error, see log", query, service.getConfig().getName());
-                return;
+                return loaded;
             }
             List<SearchResult.Result> localResults = tmp.getResults();
             if(localResults != null) {
-                for(SearchResult.Result result: localResults) {
-                    SearchResult.Result exists = results.putIfAbsent(result.getName(), result);
-                    if(exists != null) {
-                        exists.getRegistries().addAll(result.getRegistries());
-                    }
-                }
+                loaded.addAll(localResults);
             }
             page = tmp.getPage() + 1;
             if(page >= tmp.getNumPages()) {
-                return;
+                return loaded;
             }
             pageSize = tmp.getPageSize();
             if(pageSize <= 0) {
                 pageSize = MAX_PAGE_SIZE;
             }
         }
+        return loaded;
+    }
+
+    /**
+     * Merge loaded results into this helper.
+     * @param loaded results from {@link #load(RegistryService)}, null is ignored
+     */
+    public void add(List<SearchResult.Result> loaded) {
+        if(loaded == null) {
+            return;
+        }
+        for(SearchResult.Result result: loaded) {
+            SearchResult.Result exists = results.putIfAbsent(result.getName(), result);
+            if(exists != null) {
+                exists.getRegistries().addAll(result.getRegistries());
+            }
+        }
     }
 
     public SearchResult collect() {
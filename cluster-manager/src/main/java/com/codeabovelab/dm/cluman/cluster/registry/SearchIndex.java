@@ -49,7 +49,11 @@ class SearchIndex implements SupportSearch, AutoCloseable {
         this.service = service;
         this.registryName = this.service.getConfig().getName();
         this.ses = scheduledExecutorService;
-        this.cache = SingleValueCache.builder(this::load).timeAfterWrite(TimeUnit.MILLISECONDS, getTimeout()).build();
+        // we return old index while new is loaded
+        this.cache = SingleValueCache.builder(this::load)
+          .timeAfterWrite(TimeUnit.MILLISECONDS, getTimeout())
+          .refreshExecutor(this.ses)
+          .build();
     }
 
     private Map<String, ImageInfo> load() {
@@ -150,7 +154,6 @@ class SearchIndex implements SupportSearch, AutoCloseable {
 
     public void init() {
         if(ses != null) {
-            //TODO we must return old cache when update in progress
             this.future = ses.scheduleWithFixedDelay(() -> cache.get(), 1000L, getTimeout(), TimeUnit.MILLISECONDS);
         }
     }
@@ -16,12 +16,15 @@
 
 package com.codeabovelab.dm.cluman.configs.container;
 
+import com.codeabovelab.dm.cluman.model.ContainerSource;
 import com.codeabovelab.dm.cluman.utils.ContainerUtils;
 import com.codeabovelab.dm.common.utils.Throwables;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.slf4j.Logger;
@@ -29,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
@@ -36,17 +40,18 @@ import javax.annotation.PostConstruct;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static java.util.Collections.singleton;
 
 /**
  * Fetches configs from remote REPO
  * Env name = branch if exists
- * Cluster name = dir
+ * Cluster name = dir <p/>
+ * Configs are parsed into immutable snapshot of repository at some commit, snapshot is refreshed periodically
+ * or by {@link #refresh()}, so container creation does not wait git operations.
  */
 @Component
 @Order(1)
@@ -60,7 +65,9 @@ public class ConfigsFetcherGit implements ConfigsFetcher {
     private final GitSettings gitSettings;
     private final List<Parser> parser;
     private final List<Function<String, String>> functions = new ArrayList<>(Arrays.asList(new NameFunction(), new NameVersionFunction()));
+    private final Object refreshLock = new Object();
     private volatile Git git;
+    private volatile Snapshot snapshot;
     private CredentialsProvider cp;
 
     @Autowired
@@ -69,25 +76,101 @@ public class ConfigsFetcherGit implements ConfigsFetcher {
         this.parser = parser;
     }
 
+    /**
+     * Parsed configs of repository at specified commit.
+     */
+    private static final class Snapshot {
+        private final ObjectId commit;
+        /**
+         * Key is a path of config file relative to repository root, without extension.
+         */
+        private final Map<String, List<ContainerSource>> configs;
+
+        Snapshot(ObjectId commit, Map<String, List<ContainerSource>> configs) {
+            this.commit = commit;
+            this.configs = configs;
+        }
+    }
+
     @Override
-    public synchronized void resolveProperties(ContainerCreationContext context) {
+    public void resolveProperties(ContainerCreationContext context) {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            snapshot = refreshSnapshot();
+        }
+        if (snapshot == null) {
+            return;
+        }
+        String clusterName = context.getCluster();
+        for (Function<String, String> function : functions) {
+            List<ContainerSource> sources = snapshot.configs.get(clusterName + "/" + function.apply(context.getImageName()));
+            if (sources == null) {
+                continue;
+            }
+            for (ContainerSource source : sources) {
+                // snapshot must not be changed, so we give a copy
+                context.addCreateContainerArg(source.clone());
+            }
+        }
+    }
 
-        try {
-            initGitRepo();
-            git.fetch().setCredentialsProvider(cp).call();
-//            tryBranch(context.getCluster());
-            git.pull().setCredentialsProvider(cp).call();
-            LOG.info("repo was updated");
-            String clusterName = context.getCluster();
-            String path = gitDirPath + File.separator + clusterName + File.separator;
-            for (Function<String, String> function : functions) {
-                for (Parser ps : parser) {
-                    ps.parse(path + function.apply(context.getImageName()), context);
+    /**
+     * Fetch and pull repository, then parse configs when commit is changed.
+     */
+    @Scheduled(fixedDelayString = "${dm.image.configuration.git.refresh:60000}")
+    public void refresh() {
+        refreshSnapshot();
+    }
+
+    /**
+     * @return current snapshot or null when repository is not available
+     */
+    private Snapshot refreshSnapshot() {
+        synchronized (refreshLock) {
+            try {
+                initGitRepo();
+                git.fetch().setCredentialsProvider(cp).call();
+//                tryBranch(context.getCluster());
+                git.pull().setCredentialsProvider(cp).call();
+                ObjectId commit = git.getRepository().resolve(Constants.HEAD);
+                Snapshot old = this.snapshot;
+                if (old == null || !old.commit.equals(commit)) {
+                    this.snapshot = new Snapshot(commit, parseConfigs());
+                    LOG.info("repo was updated to {}", commit.getName());
                 }
+            } catch (Exception e) {
+                LOG.error("Can not refresh repo, use previous configs.", e);
+            }
+            return this.snapshot;
+        }
+    }
+
+    private Map<String, List<ContainerSource>> parseConfigs() throws Exception {
+        Path root = gitDirPath;
+        Set<String> names = new TreeSet<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+              .map(root::relativize)
+              .filter(p -> !p.startsWith(Constants.DOT_GIT))
+              .forEach(p -> {
+                  String name = p.toString().replace(File.separatorChar, '/');
+                  int ext = name.lastIndexOf('.');
+                  if (ext > 0 && name.lastIndexOf('/') < ext) {
+                      names.add(name.substring(0, ext));
+                  }
+              });
+        }
+        Map<String, List<ContainerSource>> configs = new HashMap<>();
+        for (String name : names) {
+            ContainerCreationContext context = ContainerCreationContext.builder().build();
+            for (Parser ps : parser) {
+                ps.parse(root + File.separator + name.replace('/', File.separatorChar), context);
+            }
+            if (!context.getArgList().isEmpty()) {
+                configs.put(name, Collections.unmodifiableList(new ArrayList<>(context.getArgList())));
             }
-        } catch (Exception e) {
-            LOG.error("", e);
         }
+        return Collections.unmodifiableMap(configs);
     }
 
     private void tryBranch(String cluster) {
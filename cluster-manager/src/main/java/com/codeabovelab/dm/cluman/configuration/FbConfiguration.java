@@ -29,10 +29,12 @@ import org.springframework.context.annotation.Configuration;
 @ComponentScan(basePackageClasses = PersistentBusFactory.class)
 public class FbConfiguration {
     @Bean
-    FbStorage fileBackedStorage(@Value("${dm.file.fbstorage}") String storagePath) {
+    FbStorage fileBackedStorage(@Value("${dm.file.fbstorage}") String storagePath,
+                                @Value("${dm.fbstorage.syncEvery:0}") int syncEvery) {
         return FbStorage.builder()
           .maxFileSize(1024 * 1024 * 512)
           .path(storagePath)
+          .syncEvery(syncEvery)
           .build();
     }
 }
@@ -28,20 +28,31 @@ import com.codeabovelab.dm.cluman.cluster.docker.model.*;
 import com.codeabovelab.dm.cluman.ds.swarm.DockerServices;
 import com.codeabovelab.dm.cluman.model.*;
 import com.codeabovelab.dm.cluman.model.Node;
+import com.codeabovelab.dm.common.utils.Throwables;
+import com.codeabovelab.dm.common.utils.TimedTask;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
 import org.springframework.util.Assert;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  */
 @Slf4j
 class VirtualDockerService implements DockerService {
 
+    /**
+     * Timeout for node in aggregate calls, it counted from start of node call. Slow nodes will be reported as errors.
+     */
+    private static final long NODE_TIMEOUT = 10_000;
+    /**
+     * Limit of whole call on nodes, include time which tasks spent in queue.
+     */
+    private static final long NODES_TIMEOUT = NODE_TIMEOUT * 2;
     private final NodesGroupImpl cluster;
     // we need empty config for prevent NPE
     private final ClusterConfig config = ClusterConfigImpl.builder()
@@ -82,39 +93,72 @@ class VirtualDockerService implements DockerService {
     @Override
     public List<DockerContainer> getContainers(GetContainersArg arg) {
         List<DockerContainer> virtConts = new ArrayList<>();
-        for(Node node: cluster.getNodes()) {
-            DockerService service = getServiceByNode(node);
-            if(isOffline(service)) {
-                // due to different causes service can be null
-                continue;
-            }
-            try {
-                List<DockerContainer> nodeContainer = service.getContainers(arg);
-                virtConts.addAll(nodeContainer);
-            } catch (AccessDeniedException e) {
-                //nothing
-            }
-        }
+        onNodes(service -> service.getContainers(arg), new HashMap<>()).values().forEach(virtConts::addAll);
         return virtConts;
     }
 
     @Override
     public List<ImageItem> getImages(GetImagesArg arg) {
         List<ImageItem> virt = new ArrayList<>();
+        onNodes(service -> service.getImages(arg), new HashMap<>()).values().forEach(virt::addAll);
+        return virt;
+    }
+
+    /**
+     * Concurrently invoke action on each online node of cluster. Each node has {@link #NODE_TIMEOUT} for response,
+     * which is counted from start of its task, and whole call is limited by {@link #NODES_TIMEOUT}. Nodes which
+     * is not responded (include ones whose tasks are still queued at the end) or failed are placed into errors map.
+     * @param action action
+     * @param errors map for errors of nodes
+     * @param <T> type of result
+     * @return results of nodes, in order of nodes
+     */
+    private <T> Map<String, T> onNodes(Function<DockerService, T> action, Map<String, String> errors) {
+        ExecutorService executor = this.cluster.getDockerServices().getNodesExecutor();
+        List<String> names = new ArrayList<>();
+        List<TimedTask<T>> tasks = new ArrayList<>();
         for(Node node: cluster.getNodes()) {
             DockerService service = getServiceByNode(node);
             if(isOffline(service)) {
                 // due to different causes service can be null
                 continue;
             }
+            String name = node.getName();
             try {
-                List<ImageItem> images = service.getImages(arg);
-                virt.addAll(images);
-            } catch (AccessDeniedException e) {
-                //nothing
+                // node services check access, so we must pass security context into tasks
+                tasks.add(TimedTask.submit(executor, DelegatingSecurityContextCallable.create(() -> action.apply(service), null), NODE_TIMEOUT));
+                names.add(name);
+            } catch (RejectedExecutionException e) {
+                log.warn("Can not call {}, due to overloaded executor", name);
+                errors.put(name, "Overloaded");
             }
         }
-        return virt;
+        Map<String, T> results = new LinkedHashMap<>();
+        final long deadline = System.currentTimeMillis() + NODES_TIMEOUT;
+        try {
+            for(int i = 0; i < tasks.size(); ++i) {
+                String name = names.get(i);
+                try {
+                    results.put(name, tasks.get(i).get(deadline));
+                } catch (TimeoutException | CancellationException e) {
+                    log.warn("Node {} does not respond in {} ms", name, NODE_TIMEOUT);
+                    errors.put(name, "Timeout");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if(cause instanceof AccessDeniedException) {
+                        continue;
+                    }
+                    log.warn("Can not call {}, due to error {}", name, cause.toString());
+                    errors.put(name, cause.toString());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.asRuntime(e);
+        } finally {
+            tasks.forEach(TimedTask::cancel);
+        }
+        return results;
     }
 
     private DockerService getServiceByNode(Node node) {
@@ -164,25 +208,17 @@ class VirtualDockerService implements DockerService {
                 nodeList.add(nodeInfo);
             }
             DockerService service = getServiceByNode(node);
-            if(isOffline(service)) {
+            if(isOffline(service) || nodeInfo == null || !nodeInfo.isOn()) {
                 offNodes++;
-                // due to different causes service can be null
-                continue;
-            }
-            if(nodeInfo == null || !nodeInfo.isOn()) {
-                offNodes++;
-            }
-            try {
-                List<DockerContainer> nodeContainer = service.getContainers(new GetContainersArg(true));
-                int running = (int) nodeContainer.stream().filter(DockerContainer::isRun).count();
-                containers += running;
-                offContainers += nodeContainer.size() - running;
-            } catch (AccessDeniedException e) {
-                //nothing
-            } catch (Exception e) {
-                log.warn("Can not list containers on {}, due to error {}", node.getName(), e.toString());
             }
         }
+        Map<String, String> errors = new HashMap<>();
+        Map<String, List<DockerContainer>> nodesContainers = onNodes(service -> service.getContainers(new GetContainersArg(true)), errors);
+        for(List<DockerContainer> nodeContainer: nodesContainers.values()) {
+            int running = (int) nodeContainer.stream().filter(DockerContainer::isRun).count();
+            containers += running;
+            offContainers += nodeContainer.size() - running;
+        }
         return DockerServiceInfo.builder()
           .name(getCluster())
           .nodeList(nodeList)
@@ -190,6 +226,7 @@ class VirtualDockerService implements DockerService {
           .offNodeCount(offNodes)
           .containers(containers)
           .offContainers(offContainers)
+          .nodeErrors(errors)
           .build();
     }
 
@@ -33,6 +33,8 @@ import org.springframework.context.SmartLifecycle;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
@@ -44,6 +46,10 @@ import java.util.concurrent.*;
 @Slf4j
 @Component
 class ContainerInfoUpdater implements SmartLifecycle {
+    /**
+     * Max count of nodes which is updated simultaneously.
+     */
+    private static final int UPDATE_THREADS = 8;
     private boolean started;
     private final DockerServices dockerServices;
     private final ContainerStorageImpl containerStorage;
@@ -52,6 +58,7 @@ class ContainerInfoUpdater implements SmartLifecycle {
     private final Subscriptions<DockerLogEvent> dockerLogSubs;
     private final ConcurrentMap<String, RescheduledTask> scheduledNodes;
     private final ScheduledExecutorService scheduledService;
+    private final ExecutorService updateExecutor;
 
     @Autowired
     public ContainerInfoUpdater(DockerServices dockerServices,
@@ -73,6 +80,10 @@ class ContainerInfoUpdater implements SmartLifecycle {
           .setNameFormat(getClass().getSimpleName() + "-%d")
           .build());
         this.scheduledNodes = new ConcurrentHashMap<>();
+        this.updateExecutor = Executors.newFixedThreadPool(UPDATE_THREADS, new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(getClass().getSimpleName() + "-update-%d")
+          .build());
     }
 
     @Override
@@ -104,6 +115,12 @@ class ContainerInfoUpdater implements SmartLifecycle {
         return started;
     }
 
+    @PreDestroy
+    public void destroy() {
+        this.scheduledService.shutdownNow();
+        this.updateExecutor.shutdownNow();
+    }
+
     @Override
     public int getPhase() {
         return 0;
@@ -190,18 +207,26 @@ class ContainerInfoUpdater implements SmartLifecycle {
 
     @Scheduled(fixedDelay = 5L * 60_000L /* 5 min */)
     public void update() {
+        log.info("Begin update containers list");
+        // nodes is updated concurrently, so whole update take time of slowest node
+        List<Future<?>> futures = new ArrayList<>();
         try(TempAuth ta = TempAuth.asSystem()) {
-            log.info("Begin update containers list");
             for(String node: dockerServices.getNodeServices()) {
-                DockerService nodeService = dockerServices.getNodeService(node);
-                // we do _not_ check service to 'online' here
-                if(nodeService == null) {
-                    continue;
-                }
-                updateForNode(nodeService);
+                futures.add(updateExecutor.submit(() -> updateNodeByName(node)));
             }
-            log.info("End update containers list");
         }
+        for(Future<?> future: futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Update containers list was interrupted.");
+                return;
+            } catch (ExecutionException e) {
+                log.error("Updating containers failed with error.", e.getCause());
+            }
+        }
+        log.info("End update containers list");
     }
 
     private void updateForNode(DockerService nodeService) {
@@ -210,12 +235,15 @@ class ContainerInfoUpdater implements SmartLifecycle {
         try {
             List<DockerContainer> containers = nodeService.getContainers(new GetContainersArg(true));
             Set<String> old = this.containerStorage.getContainersIdsByNode(node);
+            int updated = 0;
             for(DockerContainer dc: containers) {
                 old.remove(dc.getId());
-                this.containerStorage.getOrCreateContainer(dc, node);
+                if(this.containerStorage.updateContainer(dc, node)) {
+                    updated++;
+                }
             }
             this.containerStorage.remove(old);
-            log.info("Containers of node '{}', current:{}, removed:{}", node, containers.size(), old.size());
+            log.info("Containers of node '{}', current:{}, updated:{}, removed:{}", node, containers.size(), updated, old.size());
         } catch (Exception e) {
             log.info("Updating containers of node '{}' failed with error.", node, e);
         }
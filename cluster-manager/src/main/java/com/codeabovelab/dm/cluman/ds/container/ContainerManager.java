@@ -37,18 +37,28 @@ import com.codeabovelab.dm.cluman.model.NodeInfo;
 import com.codeabovelab.dm.cluman.model.NodeRegistry;
 import com.codeabovelab.dm.cluman.source.ContainerSourceFactory;
 import com.codeabovelab.dm.cluman.validate.ExtendedAssert;
+import com.codeabovelab.dm.common.security.TempAuth;
 import com.codeabovelab.dm.common.utils.Consumers;
+import com.codeabovelab.dm.common.utils.Throwables;
 import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import static com.codeabovelab.dm.cluman.cluster.docker.management.DockerUtils.SCALABLE;
 import static com.codeabovelab.dm.cluman.cluster.docker.model.RestartPolicy.parse;
@@ -69,6 +79,9 @@ public class ContainerManager {
          */
         final DockerService dockerService;
         private String name;
+        private PreparedSource prepared;
+        // node which is counted for this container in prepared source
+        private String reservedNode;
 
         CreateContainerContext(CreateContainerArg arg, DockerService service) {
             this.arg = arg;
@@ -97,10 +110,75 @@ public class ContainerManager {
         public void setName(String name) {
             this.name = name;
         }
+
+        /**
+         * Inputs of creation which is same for all tries, it evaluated once.
+         * @return prepared source
+         */
+        PreparedSource getPrepared() {
+            if (prepared == null) {
+                prepared = prepare(this);
+            }
+            return prepared;
+        }
+    }
+
+    /**
+     * Pulled image, resolved config and nodes, it does not depend on concrete container,
+     * therefore can be shared between replicas. Count of instances per node is updated by each replica,
+     * so replicas which is created concurrently see placement of each other.
+     */
+    private static final class PreparedSource {
+        final ContainerSource source;
+        final List<String> existsNodes;
+        private final Map<String, Integer> appCountPerNode;
+
+        PreparedSource(ContainerSource source, Map<String, Integer> appCountPerNode, List<String> existsNodes) {
+            this.source = source;
+            this.appCountPerNode = appCountPerNode;
+            this.existsNodes = existsNodes;
+        }
+
+        /**
+         * Calculate node constraints and count container on chosen node.
+         * @param node required node or null
+         * @param maxCount max count of instances on one node
+         * @param dest collection for constraints
+         * @return node on which container is counted, or null
+         */
+        synchronized String reserve(String node, int maxCount, Collection<String> dest) {
+            String reserved = ContainerStarterHelper.calculateConstraints(existsNodes, node, appCountPerNode, maxCount, dest);
+            if(reserved != null && !appCountPerNode.isEmpty()) {
+                appCountPerNode.merge(reserved, 1, Integer::sum);
+                return reserved;
+            }
+            return null;
+        }
+
+        /**
+         * Move container from reserved node to node on which it was actually placed.
+         * @param reserved result of {@link #reserve(String, int, Collection)}
+         * @param actual node of created container, or null when container was not created
+         */
+        synchronized void placed(String reserved, String actual) {
+            if(Objects.equals(reserved, actual)) {
+                return;
+            }
+            if(reserved != null) {
+                appCountPerNode.computeIfPresent(reserved, (k, v) -> v - 1);
+            }
+            if(actual != null && !appCountPerNode.isEmpty()) {
+                appCountPerNode.merge(actual, 1, Integer::sum);
+            }
+        }
     }
 
     private static final Logger LOG = LoggerFactory.getLogger(DockerServiceImpl.class);
     private static final int CREATE_CONTAINER_TRIES = 3;
+    /**
+     * Max count of containers which is created simultaneously on scale.
+     */
+    private static final int SCALE_CONCURRENCY = 10;
     private final DockerServiceRegistry dockerServiceRegistry;
     private final NodeRegistry nodeRegistry;
     private final ConfigProvider configProvider;
@@ -155,6 +233,7 @@ public class ContainerManager {
                     if(node == null) {
                         LOG.error("Container '{}' has null node.", containerId);
                     }
+                    cc.getPrepared().placed(cc.reservedNode, node);
                     container.setName(ContainerUtils.fixContainerName(container.getName()));
                     ContainerRegistration orCreateContainer = containerStorage.getOrCreateContainer(container, node);
                     orCreateContainer.setAdditionalLabels(cc.arg.getContainer().getLabels());
@@ -189,6 +268,8 @@ public class ContainerManager {
             if (!weCanTryAgain) {
                 break;
             }
+            // name counter is behind of real containers, for example when events was missed
+            containersNameService.refresh(cc.arg.getContainer().getImage(), cc.dockerService);
         }
         if (response == null || ResultCode.OK != response.getCode()) {
             throw new IllegalStateException("Can't create container, due: " + response.getCode() + " " + response.getMessage());
@@ -210,21 +291,36 @@ public class ContainerManager {
         String scalable = container.getConfig().getLabels().get(SCALABLE);
         if (scalable == null || "true".equals(scalable)) {
             int scale = scaleFactor == null ? 1 : scaleFactor;
+            ContainerSource template = new ContainerSource();
+            containerSourceFactory.toSource(container, template);
+            template.setCluster(clusterId);
+            template.setNode(null);
+            template.setName(null);
+            template.setHostname(null);
+            template.setDomainname(null);
+            SwarmUtils.clearLabels(template.getLabels());
+            List<CreateContainerContext> contexts = new ArrayList<>(scale);
+            PreparedSource prepared = null;
             for (int i = 0; i < scale; i++) {
-                ContainerSource nc = new ContainerSource();
-                containerSourceFactory.toSource(container, nc);
-                nc.setCluster(clusterId);
-                nc.setNode(null);
-                nc.setName(null);
-                nc.setHostname(null);
-                nc.setDomainname(null);
-                SwarmUtils.clearLabels(nc.getLabels());
                 CreateContainerArg arg = new CreateContainerArg();
-                arg.setContainer(nc);
+                arg.setContainer(template.clone());
                 CreateContainerContext cc = new CreateContainerContext(arg, docker);
-                CreateAndStartContainerResult containerInternal = createContainerInternal(cc);
-                if (containerInternal.getCode() == ResultCode.ERROR) {
-                    return containerInternal;
+                if (prepared == null) {
+                    try {
+                        // image pull, configs and nodes are same for all replicas
+                        prepared = cc.getPrepared();
+                    } catch (Exception e) {
+                        LOG.error("Can't prepare creation of container", e);
+                        return new ServiceCallResult().code(ResultCode.ERROR).message(e.getMessage());
+                    }
+                } else {
+                    cc.prepared = prepared;
+                }
+                contexts.add(cc);
+            }
+            for (CreateAndStartContainerResult result : createAll(contexts)) {
+                if (result.getCode() == ResultCode.ERROR) {
+                    return result;
                 }
             }
             return new ServiceCallResult()
@@ -236,14 +332,81 @@ public class ContainerManager {
         }
     }
 
+    /**
+     * Create containers concurrently, but no more than {@link #SCALE_CONCURRENCY} at once.
+     * After first error other not started containers is skipped.
+     * @param contexts contexts of containers
+     * @return results of started creations, in order of contexts
+     */
+    private List<CreateAndStartContainerResult> createAll(List<CreateContainerContext> contexts) {
+        List<CreateAndStartContainerResult> results = new ArrayList<>(contexts.size());
+        int threads = Math.min(contexts.size(), SCALE_CONCURRENCY);
+        if (threads <= 1) {
+            for (CreateContainerContext cc : contexts) {
+                CreateAndStartContainerResult result = createContainerInternal(cc);
+                results.add(result);
+                if (result.getCode() == ResultCode.ERROR) {
+                    break;
+                }
+            }
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(getClass().getSimpleName() + "-scale-%d")
+          .build());
+        try {
+            final Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            final AtomicBoolean failed = new AtomicBoolean();
+            List<Future<CreateAndStartContainerResult>> futures = new ArrayList<>(contexts.size());
+            for (CreateContainerContext cc : contexts) {
+                futures.add(executor.submit(() -> {
+                    if (failed.get()) {
+                        return null;
+                    }
+                    try (TempAuth ta = TempAuth.open(auth)) {
+                        CreateAndStartContainerResult result = createContainerInternal(cc);
+                        if (result.getCode() == ResultCode.ERROR) {
+                            failed.set(true);
+                        }
+                        return result;
+                    }
+                }));
+            }
+            for (Future<CreateAndStartContainerResult> future : futures) {
+                CreateAndStartContainerResult result = future.get();
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating containers.", e);
+        } catch (ExecutionException e) {
+            throw Throwables.asRuntime(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private CreateContainerResponse doCreation(CreateContainerContext cc) {
         CreateContainerCmd cmd = buildCreateContainer(cc);
-        CreateContainerResponse response = cc.dockerService.createContainer(cmd);
+        CreateContainerResponse response = null;
+        try {
+            response = cc.dockerService.createContainer(cmd);
+        } finally {
+            if (response == null || response.getCode() != ResultCode.OK) {
+                // container is not created, so it must not be counted
+                cc.getPrepared().placed(cc.reservedNode, null);
+                cc.reservedNode = null;
+            }
+        }
         ProcessEvent.watch(cc.watcher, "Result of execution: {0}", response);
         return response;
     }
 
-    protected CreateContainerCmd buildCreateContainer(CreateContainerContext cc) {
+    private PreparedSource prepare(CreateContainerContext cc) {
         DockerService dockerService = cc.dockerService;
         ContainerSource nc = cc.arg.getContainer();
         String imageName = nc.getImage();
@@ -251,12 +414,19 @@ public class ContainerManager {
         ContainerSource result = configProvider.resolveProperties(nc.getCluster(), image, imageName, nc);
         Map<String, Integer> appCountPerNode = getContainersPerNodeForImage(cc, imageName);
         List<String> existsNodes = DockerUtils.listNodes(dockerService.getInfo());
+        return new PreparedSource(result, appCountPerNode, existsNodes);
+    }
+
+    protected CreateContainerCmd buildCreateContainer(CreateContainerContext cc) {
+        DockerService dockerService = cc.dockerService;
+        ContainerSource nc = cc.arg.getContainer();
+        String imageName = nc.getImage();
+        PreparedSource prepared = cc.getPrepared();
+        ContainerSource result = prepared.source;
         // we want to save order of entries, but skip duplicates
         LinkedHashSet<String> env = new LinkedHashSet<>();
         env.addAll(result.getEnvironment());
-        ContainerStarterHelper.calculateConstraints(existsNodes,
-          result.getNode(),
-          appCountPerNode,
+        cc.reservedNode = prepared.reserve(result.getNode(),
           dockerService.getClusterConfig().getMaxCountOfInstances(), env);
         LOG.info("Env: {}", env);
         ProcessEvent.watch(cc.watcher, "Environment: {0}", env);
@@ -299,14 +469,21 @@ public class ContainerManager {
         if (service == null) {
             service = cc.dockerService;
         }
+        Map<String, Integer> countPerNode = new HashMap<>();
+        for (ContainerRegistration cr : containerStorage.getContainersByImage(imageName)) {
+            countPerNode.merge(cr.getNode(), 1, Integer::sum);
+        }
         Map<String, Integer> map = new HashMap<>();
         for (NodeInfo ni : service.getInfo().getNodeList()) {
             String nodeName = ni.getName();
-            List<ContainerRegistration> containers = containerStorage.getContainersByNode(ni.getName());
-            if(CollectionUtils.isEmpty(containers)) {
-                continue;
+            Integer count = countPerNode.get(nodeName);
+            if(count == null) {
+                // node without containers is not placed into map
+                if(CollectionUtils.isEmpty(containerStorage.getContainersByNode(nodeName))) {
+                    continue;
+                }
+                count = 0;
             }
-            int count = (int) containers.stream().filter(c -> imageName.equals(c.getContainer().getImage())).count();
             map.put(nodeName, count);
         }
         return map;
@@ -27,6 +27,7 @@ import org.springframework.util.Assert;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 
 public class ContainerRegistration {
     private final String id;
@@ -93,6 +94,23 @@ public class ContainerRegistration {
         }
     }
 
+    /**
+     * Check that registration has node or container attributes which differ from specified.
+     * @param container source of container attributes
+     * @param node name of node
+     * @return true when {@link #from(ContainerBaseIface, String)} will change registration
+     */
+    public boolean isDiffer(ContainerBaseIface container, String node) {
+        synchronized (lock) {
+            Map<String, String> labels = container.getLabels();
+            return !Objects.equals(this.node, node) ||
+              !Objects.equals(this.container.getName(), container.getName()) ||
+              !Objects.equals(this.container.getImage(), container.getImage()) ||
+              !Objects.equals(this.container.getImageId(), container.getImageId()) ||
+              !this.container.getLabels().equals(labels == null ? Collections.emptyMap() : labels);
+        }
+    }
+
     public void from(ContainerBaseIface container, String node) {
         synchronized (lock) {
             String name = container.getName();
@@ -48,9 +48,9 @@ public final class ContainerStarterHelper {
      * @param node
      * @param appCountPerNode
      * @param maxCount
-     * @return
+     * @return name of node which is required or preferred for container, or null
      */
-    public static void calculateConstraints(Collection<String> existsNodes,
+    public static String calculateConstraints(Collection<String> existsNodes,
                                             String node,
                                             Map<String, Integer> appCountPerNode,
                                             int maxCount,
@@ -58,15 +58,15 @@ public final class ContainerStarterHelper {
         for(String i: dest) {
             if(i.startsWith(CONSTRAINT_NODE)) {
                 // already has node constraints
-                return;
+                return null;
             }
         }
         if (node != null) {
             dest.add(CONSTRAINT_NODE + "==" + node);
-            return;
+            return node;
         }
         if (appCountPerNode == null || appCountPerNode.isEmpty()) {
-            return;
+            return null;
         }
 
         List<NodePriority> values = processServicesCount(appCountPerNode, existsNodes);
@@ -77,6 +77,7 @@ public final class ContainerStarterHelper {
         if(forbidden != null) {
             dest.add(forbidden);
         }
+        return values.get(0).name;
     }
 
     private static String calculateFullNodeExpression(List<NodePriority> fullNodes) {
@@ -32,6 +32,13 @@ public interface ContainerStorage {
      */
     ContainerRegistration findContainer(String name);
     List<ContainerRegistration> getContainersByNode(String nodeName);
+
+    /**
+     * Containers which is created from specified image.
+     * @param image image name exactly as it present in container
+     * @return list of registrations, never null
+     */
+    List<ContainerRegistration> getContainersByImage(String image);
     ContainerRegistration getOrCreateContainer(ContainerBaseIface container, String node);
 
 }
@@ -27,13 +27,11 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 @Component
 @Slf4j
@@ -42,6 +40,20 @@ public class ContainerStorageImpl implements ContainerStorage, InitializingBean
     private final KvMapperFactory kvmf;
 
     private final ConcurrentMap<String, ContainerRegistration> containerMap;
+    /**
+     * Secondary indexes: key to set of container ids. Indexes are updated on register and remove, and
+     * when {@link #updateContainer(ContainerBaseIface, String)} changes node, name or image of registration.
+     * Such update moves id from old keys to new ones, so concurrent reader may briefly miss the container.
+     * Index may contain id of container which is not yet in (or already removed from)
+     * {@link #containerMap}, therefore any reader must resolve ids through it.
+     */
+    private final ConcurrentMap<String, Set<String>> idsByNode = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> idsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> idsByImage = new ConcurrentHashMap<>();
+    /**
+     * Sorted ids for search by prefix.
+     */
+    private final ConcurrentSkipListSet<String> sortedIds = new ConcurrentSkipListSet<>();
     private final DockerServicesConfig configuration;
     private final String prefix;
 
@@ -70,6 +82,7 @@ public class ContainerStorageImpl implements ContainerStorage, InitializingBean
         }
         ContainerRegistration cr = containerMap.remove(id);
         if(cr != null) {
+            unindex(cr);
             ContainerBase cb = cr.getContainer();
             log.info("Container remove: {} '{}', of '{}'", cr.getId(), cb.getName(), cb.getImage());
         }
@@ -89,27 +102,73 @@ public class ContainerStorageImpl implements ContainerStorage, InitializingBean
     public ContainerRegistration findContainer(String name) {
         ContainerRegistration cr = containerMap.get(name);
         if(cr == null) {
-            cr = containerMap.values().stream().filter((c) -> {
-                return c.getId().startsWith(name) || c.getContainer().getName().equals(name);
-            }).findAny().orElse(null);
+            cr = findAny(idsByName.get(name));
+        }
+        if(cr == null) {
+            cr = findByIdPrefix(name);
         }
         return cr;
     }
 
+    private ContainerRegistration findAny(Set<String> ids) {
+        if(ids == null) {
+            return null;
+        }
+        for(String id: ids) {
+            ContainerRegistration cr = containerMap.get(id);
+            if(cr != null) {
+                return cr;
+            }
+        }
+        return null;
+    }
+
+    private ContainerRegistration findByIdPrefix(String idPrefix) {
+        if(idPrefix.isEmpty()) {
+            return null;
+        }
+        for(String id: sortedIds.tailSet(idPrefix)) {
+            if(!id.startsWith(idPrefix)) {
+                break;
+            }
+            ContainerRegistration cr = containerMap.get(id);
+            if(cr != null) {
+                return cr;
+            }
+        }
+        return null;
+    }
+
     @Override
     public List<ContainerRegistration> getContainersByNode(String nodeName) {
-        return containerMap.values()
-          .stream()
-          .filter(c -> c.getNode().equals(nodeName))
-          .collect(Collectors.toList());
+        return resolve(idsByNode.get(nodeName));
+    }
+
+    @Override
+    public List<ContainerRegistration> getContainersByImage(String image) {
+        return resolve(idsByImage.get(image));
+    }
+
+    private List<ContainerRegistration> resolve(Set<String> ids) {
+        if(ids == null) {
+            return Collections.emptyList();
+        }
+        List<ContainerRegistration> list = new ArrayList<>(ids.size());
+        for(String id: ids) {
+            ContainerRegistration cr = containerMap.get(id);
+            if(cr != null) {
+                list.add(cr);
+            }
+        }
+        return list;
     }
 
     Set<String> getContainersIdsByNode(String nodeName) {
-        return containerMap.values()
-          .stream()
-          .filter(c -> c.getNode().equals(nodeName))
-          .map(ContainerRegistration::getId)
-          .collect(Collectors.toSet());
+        Set<String> ids = new HashSet<>();
+        for(ContainerRegistration cr: getContainersByNode(nodeName)) {
+            ids.add(cr.getId());
+        }
+        return ids;
     }
 
     /**
@@ -124,13 +183,88 @@ public class ContainerStorageImpl implements ContainerStorage, InitializingBean
     }
 
     ContainerRegistration getOrCreateContainer(String id, Consumer<ContainerRegistration> onCreate) {
-        return containerMap.computeIfAbsent(id, s -> {
-            ContainerRegistration registration = new ContainerRegistration(prefix, id, kvmf);
-            onCreate.accept(registration);
-            registration.flush();
-            ContainerBase cb = registration.getContainer();
-            log.info("Create container: {} '{}', of '{}'", registration.getId(), cb.getName(), cb.getImage());
-            return registration;
+        return containerMap.computeIfAbsent(id, s -> createRegistration(id, onCreate));
+    }
+
+    /**
+     * Create registration or update existed when its attributes differ from specified.
+     * @param container actual container
+     * @param node name of node
+     * @return true when registration was created or changed
+     */
+    boolean updateContainer(ContainerBaseIface container, String node) {
+        final String id = container.getId();
+        ContainerRegistration cr = containerMap.get(id);
+        if(cr != null && !cr.isDiffer(container, node)) {
+            // usual case, nothing to do
+            return false;
+        }
+        boolean[] changed = new boolean[1];
+        containerMap.compute(id, (k, old) -> {
+            if(old == null) {
+                changed[0] = true;
+                return createRegistration(id, reg -> reg.from(container, node));
+            }
+            if(old.isDiffer(container, node)) {
+                unindex(old);
+                old.from(container, node);
+                index(old);
+                changed[0] = true;
+                log.info("Update container: {} '{}', of '{}'", id, container.getName(), container.getImage());
+            }
+            return old;
+        });
+        return changed[0];
+    }
+
+    private ContainerRegistration createRegistration(String id, Consumer<ContainerRegistration> onCreate) {
+        ContainerRegistration registration = new ContainerRegistration(prefix, id, kvmf);
+        onCreate.accept(registration);
+        registration.flush();
+        index(registration);
+        ContainerBase cb = registration.getContainer();
+        log.info("Create container: {} '{}', of '{}'", registration.getId(), cb.getName(), cb.getImage());
+        return registration;
+    }
+
+    private void index(ContainerRegistration cr) {
+        String id = cr.getId();
+        ContainerBase cb = cr.getContainer();
+        sortedIds.add(id);
+        addToIndex(idsByNode, cr.getNode(), id);
+        addToIndex(idsByName, cb.getName(), id);
+        addToIndex(idsByImage, cb.getImage(), id);
+    }
+
+    private void unindex(ContainerRegistration cr) {
+        String id = cr.getId();
+        ContainerBase cb = cr.getContainer();
+        sortedIds.remove(id);
+        removeFromIndex(idsByNode, cr.getNode(), id);
+        removeFromIndex(idsByName, cb.getName(), id);
+        removeFromIndex(idsByImage, cb.getImage(), id);
+    }
+
+    private static void addToIndex(ConcurrentMap<String, Set<String>> index, String key, String id) {
+        if(key == null) {
+            return;
+        }
+        index.compute(key, (k, ids) -> {
+            if(ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private static void removeFromIndex(ConcurrentMap<String, Set<String>> index, String key, String id) {
+        if(key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty()? null : ids;
         });
     }
 
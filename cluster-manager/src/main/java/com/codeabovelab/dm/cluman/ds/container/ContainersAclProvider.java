@@ -20,12 +20,15 @@ import com.codeabovelab.dm.cluman.ds.nodes.NodeStorage;
 import com.codeabovelab.dm.cluman.security.SecuredType;
 import com.codeabovelab.dm.cluman.security.VirtualAclProvider;
 import com.codeabovelab.dm.cluman.utils.ContainerUtils;
+import com.codeabovelab.dm.common.security.acl.AclSource;
 import com.codeabovelab.dm.common.security.dto.ObjectIdentityData;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.acls.model.NotFoundException;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
+import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  */
@@ -51,6 +54,27 @@ public class ContainersAclProvider extends VirtualAclProvider {
         return nodes.getNodeCluster(node);
     }
 
+    /**
+     * Many containers usually placed on few nodes, therefore we resolve cluster once per node.
+     * Unregistered containers are skipped.
+     */
+    @Override
+    public void provideAll(Collection<? extends Serializable> ids, BiConsumer<Serializable, AclSource> consumer) {
+        Map<String, Optional<String>> nodeClusters = new HashMap<>();
+        Map<Serializable, String> idToCluster = new LinkedHashMap<>();
+        for(Serializable id: ids) {
+            String strId = (String) id;
+            ContainerRegistration cr = ContainerUtils.isContainerId(strId) ? containers.getContainer(strId) : null;
+            if(cr == null) {
+                continue;
+            }
+            Optional<String> cluster = nodeClusters.computeIfAbsent(cr.getNode(),
+              (node) -> Optional.ofNullable(nodes.getNodeCluster(node)));
+            idToCluster.put(id, cluster.orElse(null));
+        }
+        provideForClusters(idToCluster, consumer);
+    }
+
     @Override
     protected ObjectIdentityData toOid(Serializable id) {
         return SecuredType.CONTAINER.id((String) id);
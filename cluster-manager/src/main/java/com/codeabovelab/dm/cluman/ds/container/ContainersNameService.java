@@ -16,38 +16,50 @@
 
 package com.codeabovelab.dm.cluman.ds.container;
 
+import com.codeabovelab.dm.cluman.cluster.docker.model.EventType;
+import com.codeabovelab.dm.cluman.model.ContainerBase;
+import com.codeabovelab.dm.cluman.model.DockerLogEvent;
+import com.codeabovelab.dm.cluman.model.StandardActions;
 import com.codeabovelab.dm.cluman.utils.ContainerUtils;
 import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
 import com.codeabovelab.dm.cluman.cluster.docker.management.argument.CalcNameArg;
+import com.codeabovelab.dm.common.mb.Subscriptions;
 import com.codeabovelab.dm.common.utils.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
- * Service which do calculation of new container name
+ * Service which do calculation of new container name. <p/>
+ * It keep highest used number for each application name. Counters are shared between all docker services, because
+ * cluster and its nodes has same container namespace. Counter is merged with list of containers of each service at
+ * first usage, and then updated by allocations, container events and {@link #refresh(String, DockerService)}.
  */
 @Component
 public class ContainersNameService {
 
-    private static final long TIMEOUT_NAMES = TimeUnit.MINUTES.toMillis(1L);
     private static final Logger LOG = LoggerFactory.getLogger(ContainersNameService.class);
 
     private final Function<DockerService, Collection<String>> containerNames;
-    //we store names instead last name, it allow us to use middle index instead of last
-    private final ConcurrentMap<String, Long> recentNames = new ConcurrentHashMap<>();
+    // application name -> highest used number, -1 when no containers
+    private final ConcurrentMap<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+    // keys of service id and application name which containers is already merged into counters
+    private final ConcurrentMap<String, Boolean> loaded = new ConcurrentHashMap<>();
 
 
     @Autowired
-    public ContainersNameService(Function<DockerService, Collection<String>> containerNames) {
+    public ContainersNameService(Function<DockerService, Collection<String>> containerNames,
+                                 @Qualifier(DockerLogEvent.BUS) Subscriptions<DockerLogEvent> dockerLogSubs) {
         this.containerNames = containerNames;
+        dockerLogSubs.subscribe(this::onDockerLogEvent);
     }
 
     /**
@@ -55,9 +67,7 @@ public class ContainersNameService {
      * @param calcNameArg - all needed data
      */
     public String calculateName(CalcNameArg calcNameArg) {
-
         String name = internalProcess(calcNameArg);
-        if (calcNameArg.isAllocate()) { storeRecentName(name); }
         LOG.info("name of container: {}", name);
         return name;
     }
@@ -70,53 +80,83 @@ public class ContainersNameService {
 
         LOG.info("applicationName {}", applicationName);
 
-        int last = getMaxNumber(applicationName, calcNameArg.getDockerService());
-        if (last == -1) {
+        AtomicInteger counter = getCounter(applicationName, calcNameArg.getDockerService());
+        // counter is increased only on allocation, so concurrent allocations never receive same name
+        int number = calcNameArg.isAllocate() ? counter.incrementAndGet() : counter.get() + 1;
+        if (number == 0) {
             return applicationName;
         }
-        return applicationName + "-" + (last + 1);
+        return applicationName + "-" + number;
+    }
+
+    /**
+     * Merge counter with actual list of containers. It must be called when name from this service
+     * is already used, for example when container was created without events.
+     * @param imageName name of image
+     * @param dockerService service
+     */
+    public void refresh(String imageName, DockerService dockerService) {
+        String applicationName = ContainerUtils.getApplicationName(imageName).toLowerCase();
+        AtomicInteger counter = counters.computeIfAbsent(applicationName, (an) -> new AtomicInteger(-1));
+        load(counter, applicationName, dockerService);
+    }
+
+    private AtomicInteger getCounter(String applicationName, DockerService dockerService) {
+        AtomicInteger counter = counters.computeIfAbsent(applicationName, (an) -> new AtomicInteger(-1));
+        // only first call for each service and application does listing of containers,
+        // concurrent callers wait until it loaded
+        loaded.computeIfAbsent(dockerService.getId() + "/" + applicationName, (k) -> {
+            load(counter, applicationName, dockerService);
+            return Boolean.TRUE;
+        });
+        return counter;
+    }
+
+    private void load(AtomicInteger counter, String applicationName, DockerService dockerService) {
+        int max = getMaxNumber(applicationName, containerNames.apply(dockerService));
+        counter.accumulateAndGet(max, Math::max);
     }
 
-    private int getMaxNumber(String applicationName, DockerService dockerService) {
+    private static int getMaxNumber(String applicationName, Collection<String> names) {
         int last = -1;
-        Set<String> names = new HashSet<>();
-        names.addAll(containerNames.apply(dockerService));
-        names.addAll(getRecentNames());
         for (String name: names) {
-            if (!(name.startsWith(applicationName))) {
-                continue;
-            }
-            try {
-                String s = StringUtils.afterLast(name, '-');
-                int i = Integer.parseInt(s);
-                if(i > last) {
-                    last = i;
-                }
-            } catch(Exception e) {
-                //it usual if last is word or string does not contains '-'
-                if(last < 0) {
-                    last = 0;
-                }
-            }
+            last = Math.max(last, getNumber(applicationName, name));
         }
         return last;
     }
 
+    private static int getNumber(String applicationName, String name) {
+        if (!(name.startsWith(applicationName))) {
+            return -1;
+        }
+        try {
+            String s = StringUtils.afterLast(name, '-');
+            return Integer.parseInt(s);
+        } catch(Exception e) {
+            //it usual if last is word or string does not contains '-'
+            return 0;
+        }
+    }
 
-    private void storeRecentName(String name) {
-        this.recentNames.put(name, System.currentTimeMillis());
+    private void onDockerLogEvent(DockerLogEvent dle) {
+        if(dle.getType() != EventType.CONTAINER || !StandardActions.CREATE.equals(dle.getAction())) {
+            // we do not decrease counters on delete, so numbers of removed containers is not reused
+            return;
+        }
+        ContainerBase container = dle.getContainer();
+        String name = container == null ? null : container.getName();
+        if(name == null) {
+            return;
+        }
+        observeName(ContainerUtils.fixContainerName(name));
     }
 
-    private Collection<String> getRecentNames() {
-        List<String> names = new ArrayList<>();
-        final long endTime = System.currentTimeMillis() - TIMEOUT_NAMES;
-        for(Map.Entry<String, Long> e: recentNames.entrySet()) {
-            if(e.getValue() < endTime) {
-                recentNames.remove(e.getKey());
-            } else {
-                names.add(e.getKey());
+    private void observeName(String name) {
+        counters.forEach((applicationName, counter) -> {
+            int number = getNumber(applicationName, name);
+            if(number >= 0) {
+                counter.accumulateAndGet(number, Math::max);
             }
-        }
-        return names;
+        });
     }
 }
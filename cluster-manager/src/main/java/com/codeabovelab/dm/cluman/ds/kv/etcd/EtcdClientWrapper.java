@@ -32,6 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -160,6 +161,28 @@ public class EtcdClientWrapper implements KeyValueStorage {
     }
 
 
+    /**
+     * Etcd v2 API does not support multi-key transactions, therefore we send all requests at once and only then
+     * wait responses, so cost of batch is close to one round trip.
+     */
+    @Override
+    public void setAll(Map<String, String> values, WriteOptions ops) {
+        List<EtcdResponsePromise<EtcdKeysResponse>> promises = new ArrayList<>(values.size());
+        try {
+            for(Map.Entry<String, String> e: values.entrySet()) {
+                EtcdKeyPutRequest req = etcd.put(e.getKey(), e.getValue());
+                fillPutReq(ops, req);
+                promises.add(req.send());
+            }
+            for(EtcdResponsePromise<EtcdKeysResponse> promise: promises) {
+                EtcdKeysResponse etcdKeysResponse = promise.get();
+                log.debug("set value {} for key {}, ops {}", etcdKeysResponse.node.value, etcdKeysResponse.node.key, ops);
+            }
+        } catch (Exception e) {
+            throw Throwables.asRuntime(e);
+        }
+    }
+
     @Override
     public void delete(String key, WriteOptions ops) {
         EtcdKeyDeleteRequest req = etcd.delete(key);
@@ -268,7 +291,10 @@ public class EtcdClientWrapper implements KeyValueStorage {
         try {
             EtcdResponsePromise<EtcdKeysResponse> send = etcd.get(key).recursive().send();
             EtcdKeysResponse r = send.get();
-            return r.node.nodes.stream().collect(Collectors.toMap((n) -> n.key, (n) -> n.value));
+            // child directories has not value, and they are not a part of result
+            return r.node.nodes.stream()
+              .filter((n) -> !n.dir && n.value != null)
+              .collect(Collectors.toMap((n) -> n.key, (n) -> n.value));
         } catch (EtcdException e) {
             if (e.errorCode != KEY_NOT_FOUND) {
                 log.error("Error during fetching key", e);
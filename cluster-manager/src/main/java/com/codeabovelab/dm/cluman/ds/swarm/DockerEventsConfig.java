@@ -25,8 +25,15 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties("dm.docker.events.configuration")
 public class DockerEventsConfig {
 
-    private int countOfThreads = 4;
-    private int periodInSeconds = 90;
-    private int initialDelayInSeconds = 10;
+    /**
+     * Delay before resubscribe to events of node after stream break.
+     */
+    private int reconnectDelayInSeconds = 5;
+
+    /**
+     * Time without events after which stream of node is reconnected. Docker does not send anything into idle stream,
+     * so it is the only way to detect half-open connection. Zero disables it.
+     */
+    private int idleTimeoutInSeconds = 300;
 
 }
@@ -22,7 +22,6 @@ import com.codeabovelab.dm.cluman.cluster.docker.HttpAuthInterceptor;
 import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
 import com.codeabovelab.dm.cluman.cluster.docker.management.DockerServiceEvent;
 import com.codeabovelab.dm.cluman.cluster.docker.management.DockerServiceImpl;
-import com.codeabovelab.dm.cluman.cluster.docker.management.argument.GetEventsArg;
 import com.codeabovelab.dm.cluman.cluster.docker.model.Actor;
 import com.codeabovelab.dm.cluman.cluster.docker.model.DockerEvent;
 import com.codeabovelab.dm.cluman.cluster.docker.model.EventType;
@@ -39,11 +38,15 @@ import com.codeabovelab.dm.common.security.TempAuth;
 import com.codeabovelab.dm.platform.http.async.NettyRequestFactory;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.http.client.AsyncClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -62,14 +65,21 @@ import java.util.function.Function;
 @Component
 public class DockerServices implements DockerServiceRegistry, NodeRegistry {
 
+    /**
+     * Count of concurrent calls to nodes from aggregate services.
+     */
+    private static final int NODES_PARALLELISM = 16;
+    private static final int NODES_QUEUE = 1024;
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final ConcurrentMap<String, DockerService> clusters = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, DockerService> nodes = new ConcurrentHashMap<>();
     private final DockerServicesConfig configuration;
     private final RegistryRepository registryRepository;
-    private final ScheduledExecutorService scheduledExecutorService;
+    private final ExecutorService eventsExecutor;
     private final ScheduledExecutorService scheduledExecutor;
     private final ExecutorService executor;
+    private final ExecutorService infoExecutor;
+    private final ExecutorService nodesExecutor;
     private final SwarmProcesses swarmProcesses;
     private final NodeInfoProvider nodeInfoProvider;
     private final MessageBus<NodeEvent> nodeInfoMessageBus;
@@ -78,7 +88,17 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
     private final ContainerStorage containerStorage;
     private final MessageBus<DockerServiceEvent> dockerServiceEventMessageBus;
     private final AclContextFactory aclContextFactory;
-    private final Map<String, ScheduledFuture> watchingFutures = new ConcurrentHashMap<>();
+    private final Map<String, NodeEventsStream> eventsStreams = new ConcurrentHashMap<>();
+    /**
+     * Request factories of node and cluster services, they hold connection pools and must be destroyed with its service.
+     */
+    private final Map<DockerService, NettyRequestFactory> requestFactories = Collections.synchronizedMap(new IdentityHashMap<>());
+    /**
+     * Event loop and allocator which is shared between rest templates of all services,
+     * otherwise each node consume its own set of threads.
+     */
+    private final EventLoopGroup eventLoopGroup;
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
 
     @Autowired
     public DockerServices(DockerServicesConfig configuration,
@@ -109,16 +129,30 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
                     break;
                 }
                 case StandardActions.DELETE: {
-                    //TODO unregisterNode(e.getNode());
+                    unregisterNode(e.getNode().getName());
                     break;
                 }
             }
         });
         String classPrefix = getClass().getSimpleName();
+        this.eventLoopGroup = new NioEventLoopGroup(configuration.getIoThreads(), new DefaultThreadFactory(classPrefix + "-io", true));
         this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
           .setDaemon(true)
           .setNameFormat(classPrefix + "-executor-%d")
           .build());
+        this.infoExecutor = new ThreadPoolExecutor(4, 4, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat(classPrefix + "-info-%d")
+            .build());
+        ((ThreadPoolExecutor)this.infoExecutor).allowCoreThreadTimeOut(true);
+        this.nodesExecutor = new ThreadPoolExecutor(NODES_PARALLELISM, NODES_PARALLELISM, 60L, TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(NODES_QUEUE),
+          new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat(classPrefix + "-nodes-%d")
+            .build());
+        ((ThreadPoolExecutor)this.nodesExecutor).allowCoreThreadTimeOut(true);
         scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
                 .setNameFormat(classPrefix + "-scheduled-%d")
@@ -127,10 +161,18 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
                 configuration.getRefreshInfoSeconds(),
                 configuration.getRefreshInfoSeconds(),
                 TimeUnit.SECONDS);
-        scheduledExecutorService = Executors.newScheduledThreadPool(dockerMonitoringConfig.getCountOfThreads(), new ThreadFactoryBuilder()
+        // each events stream hold its thread while node is connected
+        eventsExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
                 .setDaemon(true)
-                .setNameFormat(classPrefix + "-eventsFetcher-%d")
+                .setNameFormat(classPrefix + "-eventsStream-%d")
                 .build());
+        int idleTimeout = dockerMonitoringConfig.getIdleTimeoutInSeconds();
+        if(idleTimeout > 0) {
+            // check is done more often than timeout, so idle stream is detected with small delay
+            long checkPeriod = Math.max(1, idleTimeout / 4);
+            scheduledExecutor.scheduleWithFixedDelay(() -> eventsStreams.values().forEach(NodeEventsStream::checkIdle),
+                    checkPeriod, checkPeriod, TimeUnit.SECONDS);
+        }
         dockerServiceEventMessageBus.asSubscriptions().subscribe(this::serviceListener);
     }
 
@@ -217,32 +259,21 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
         // we intentionally register node without specifying cluster
         ClusterConfig config = configForNode(node).build();
 
-        Function<String, DockerService> factory = (nodeName) -> createDockerService(config, (b) -> b.setNode(nodeName));
+        Function<String, DockerService> factory = (nodeName) -> createNodeService(config, nodeName);
         final String nodeName = node.getName();
         registerNodeBy(config, factory, nodeName);
 
         // also we register services by its containers
         final DockerService service = getNodeService(nodeName);
         if (service != null) {
-            watchingFutures.computeIfAbsent(nodeName, s -> {
-                log.info("try to register node for fetching logs {}", node);
-
-                return scheduledExecutorService.scheduleAtFixedRate(() -> {
-                            Long time = new Date().getTime();
-                            Long afterTime = time + dockerMonitoringConfig.getPeriodInSeconds() * 1000;
-                            GetEventsArg getEventsArg = GetEventsArg.builder()
-                                    .since(time)
-                                    .until(afterTime)
-                                    .watcher(e -> dockerEventMessageBus.accept(convertToLogEvent(nodeName, e)))
-                                    .build();
-                            log.debug("getting events args {}", getEventsArg);
-                            try (TempAuth ta = TempAuth.asSystem()) {
-                                service.subscribeToEvents(getEventsArg);
-                            }
-                        },
-                        dockerMonitoringConfig.getInitialDelayInSeconds(),
-                        dockerMonitoringConfig.getPeriodInSeconds(), TimeUnit.SECONDS);
-
+            eventsStreams.computeIfAbsent(nodeName, s -> {
+                log.info("try to register node for fetching events {}", node);
+                NodeEventsStream stream = new NodeEventsStream(nodeName, () -> getNodeService(nodeName),
+                        e -> dockerEventMessageBus.accept(convertToLogEvent(nodeName, e)),
+                        TimeUnit.SECONDS.toMillis(dockerMonitoringConfig.getReconnectDelayInSeconds()),
+                        TimeUnit.SECONDS.toMillis(dockerMonitoringConfig.getIdleTimeoutInSeconds()));
+                eventsExecutor.execute(stream);
+                return stream;
             });
         }
 
@@ -304,22 +335,81 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
             if (config.getHosts().equals(service.getClusterConfig().getHosts())) {
                 break;
             }
-            nodes.remove(name, service);
+            if(nodes.remove(name, service)) {
+                // service is replaced due to changed address
+                closeService(service);
+            }
             i--;
         }
         Assert.isTrue(i > 0, "Detect cycling on register node.");
     }
 
+    /**
+     * Remove service of node and release its resources.
+     * @param name name of node
+     */
+    public void unregisterNode(String name) {
+        if(name == null) {
+            return;
+        }
+        NodeEventsStream stream = eventsStreams.remove(name);
+        if(stream != null) {
+            stream.close();
+        }
+        DockerService service = nodes.remove(name);
+        if(service != null) {
+            log.info("Unregister service of node {}", name);
+            closeService(service);
+        }
+    }
+
+    private DockerService createNodeService(ClusterConfig config, String nodeName) {
+        return createDockerService(config, (b) -> b.setNode(nodeName));
+    }
+
+    private void closeService(DockerService service) {
+        NettyRequestFactory requestFactory = requestFactories.remove(service);
+        if(requestFactory != null) {
+            destroyRequestFactory(requestFactory);
+        }
+    }
+
+    private void destroyRequestFactory(NettyRequestFactory requestFactory) {
+        try {
+            requestFactory.destroy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Can not destroy request factory.", e);
+        }
+    }
+
     private DockerService createDockerService(ClusterConfig clusterConfig, Consumer<DockerServiceImpl.Builder> dockerConsumer) {
+        NettyRequestFactory requestFactory = createRequestFactory();
+        DockerService service;
+        try {
+            service = createDockerService(clusterConfig, createNewRestTemplate(requestFactory), dockerConsumer);
+        } catch (RuntimeException e) {
+            destroyRequestFactory(requestFactory);
+            throw e;
+        }
+        requestFactories.put(service, requestFactory);
+        return service;
+    }
+
+    private DockerService createDockerService(ClusterConfig clusterConfig, AsyncRestTemplate restTemplate,
+                                              Consumer<DockerServiceImpl.Builder> dockerConsumer) {
         DockerServiceImpl.Builder b = DockerServiceImpl.builder();
         b.setConfig(clusterConfig);
         String cluster = clusterConfig.getCluster();
         if(cluster != null) {
             b.setCluster(cluster);
         }
-        b.setRestTemplate(createNewRestTemplate());
+        b.setRestTemplate(restTemplate);
         b.setEventConsumer(this::dockerEventConsumer);
         b.setNodeInfoProvider(nodeInfoProvider);
+        // stale info is returned while new one is loaded in background
+        b.setInfoRefreshExecutor(this::refreshInfo);
         if (dockerConsumer != null) {
             dockerConsumer.accept(b);
         }
@@ -328,6 +418,14 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
         return ds;
     }
 
+    private void refreshInfo(Runnable task) {
+        infoExecutor.execute(() -> {
+            try(TempAuth auth = TempAuth.asSystem()) {
+                task.run();
+            }
+        });
+    }
+
     private void dockerEventConsumer(DockerServiceEvent dockerServiceEvent) {
         executor.execute(() -> {
             try(TempAuth auth = TempAuth.asSystem()) {
@@ -381,14 +479,29 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
         }
     }
 
-    private AsyncRestTemplate createNewRestTemplate() {
+    private NettyRequestFactory createRequestFactory() {
+        // each factory has own connection pools, but event loop is shared
+        NettyRequestFactory factory = new NettyRequestFactory(eventLoopGroup);
+        factory.setAllocator(allocator);
+        return factory;
+    }
+
+    private AsyncRestTemplate createNewRestTemplate(NettyRequestFactory factory) {
         // we use async client because usual client does not allow to interruption in some cases
-        AsyncClientHttpRequestFactory factory = new NettyRequestFactory();
         final AsyncRestTemplate restTemplate = new AsyncRestTemplate(factory);
         restTemplate.setInterceptors(Collections.singletonList(new HttpAuthInterceptor(registryRepository)));
         return restTemplate;
     }
 
+    /**
+     * Executor for concurrent calls to nodes, it shared between all virtual clusters and so bound count of
+     * concurrent node calls. It reject tasks when its queue is full.
+     * @return executor
+     */
+    public ExecutorService getNodesExecutor() {
+        return nodesExecutor;
+    }
+
     @Override
     public Set<String> getServices() {
         return ImmutableSet.copyOf(clusters.keySet());
@@ -397,7 +510,15 @@ public class DockerServices implements DockerServiceRegistry, NodeRegistry {
     @PreDestroy
     public void shutdown() {
         scheduledExecutor.shutdown();
-        scheduledExecutorService.shutdown();
+        infoExecutor.shutdown();
+        nodesExecutor.shutdownNow();
+        eventsStreams.values().forEach(NodeEventsStream::close);
+        eventsExecutor.shutdownNow();
+        synchronized (requestFactories) {
+            requestFactories.values().forEach(this::destroyRequestFactory);
+            requestFactories.clear();
+        }
+        eventLoopGroup.shutdownGracefully();
     }
 
     public DockerService securityWrapper(DockerService dockerService) {
@@ -27,4 +27,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class DockerServicesConfig {
     private final long cacheTimeout = 60_000;
     private final long refreshInfoSeconds = 10;
+    /**
+     * Count of io threads in event loop which is shared between all docker services.
+     */
+    private int ioThreads = Runtime.getRuntime().availableProcessors() * 2;
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.cluman.ds.swarm;
+
+import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
+import com.codeabovelab.dm.cluman.cluster.docker.management.argument.GetEventsArg;
+import com.codeabovelab.dm.cluman.cluster.docker.management.result.ResultCode;
+import com.codeabovelab.dm.cluman.cluster.docker.management.result.ServiceCallResult;
+import com.codeabovelab.dm.cluman.cluster.docker.model.DockerEvent;
+import com.codeabovelab.dm.common.security.TempAuth;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived subscription to '/events' of one node. When stream is broken it resubscribe since time of last
+ * seen event and drop events which was already delivered. Stream without events longer than idle timeout is
+ * reconnected by {@link #checkIdle()}.
+ */
+@Slf4j
+class NodeEventsStream implements Runnable, AutoCloseable {
+
+    private final String nodeName;
+    private final Supplier<DockerService> serviceSupplier;
+    private final Consumer<DockerEvent> consumer;
+    private final long reconnectDelay;
+    private final long idleTimeout;
+    /**
+     * Time of subscription or last event in ms.
+     */
+    private volatile long lastActivity;
+    /**
+     * Time of last seen event in nanoseconds.
+     */
+    private long lastTime = -1;
+    /**
+     * Keys of events with {@link #lastTime}, docker 'since' has seconds resolution, so we receive them again.
+     */
+    private final Set<String> lastKeys = new HashSet<>();
+    private volatile GetEventsArg current;
+    private volatile boolean closed;
+
+    NodeEventsStream(String nodeName, Supplier<DockerService> serviceSupplier, Consumer<DockerEvent> consumer,
+                     long reconnectDelay, long idleTimeout) {
+        this.nodeName = nodeName;
+        this.serviceSupplier = serviceSupplier;
+        this.consumer = consumer;
+        this.reconnectDelay = reconnectDelay;
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public void run() {
+        while(!closed) {
+            try (TempAuth ta = TempAuth.asSystem()) {
+                subscribe();
+            } catch (Exception e) {
+                log.error("Error in events stream of '{}' node.", nodeName, e);
+            }
+            if(closed) {
+                break;
+            }
+            try {
+                Thread.sleep(reconnectDelay);
+            } catch (InterruptedException e) {
+                if(closed) {
+                    break;
+                }
+            }
+        }
+        log.info("Events stream of '{}' node is stopped.", nodeName);
+    }
+
+    private void subscribe() {
+        DockerService service = serviceSupplier.get();
+        if(service == null) {
+            return;
+        }
+        GetEventsArg.GetEventsArgBuilder b = GetEventsArg.builder().watcher(this::onEvent);
+        if(lastTime >= 0) {
+            b.since(TimeUnit.NANOSECONDS.toSeconds(lastTime));
+        }
+        GetEventsArg arg = b.build();
+        this.lastActivity = System.currentTimeMillis();
+        this.current = arg;
+        if(closed) {
+            return;
+        }
+        log.debug("Subscribe to events of '{}' node with {}", nodeName, arg);
+        ServiceCallResult res = service.subscribeToEvents(arg);
+        if(res.getCode() != ResultCode.OK) {
+            log.warn("Events stream of '{}' node is ended with {}", nodeName, res);
+        }
+    }
+
+    private void onEvent(DockerEvent e) {
+        lastActivity = System.currentTimeMillis();
+        long time = e.getTimeNano();
+        if(time == 0) {
+            // old api has not 'timeNano'
+            time = TimeUnit.SECONDS.toNanos(e.getTime());
+        }
+        String key = e.getId() + "/" + e.getAction() + "/" + e.getStatus();
+        if(time < lastTime) {
+            return;
+        }
+        if(time == lastTime) {
+            if(!lastKeys.add(key)) {
+                return;
+            }
+        } else {
+            lastTime = time;
+            lastKeys.clear();
+            lastKeys.add(key);
+        }
+        try {
+            consumer.accept(e);
+        } catch (Exception ex) {
+            log.error("Can not process event {} from '{}' node.", e, nodeName, ex);
+        }
+    }
+
+    /**
+     * Interrupt current subscription when it has no events longer than idle timeout, so stream is reconnected.
+     * Reading of half-open connection (node rebooted behind NAT, flow dropped by firewall) is blocked forever,
+     * and reconnect of a healthy stream is cheap, because it resubscribe since last event.
+     */
+    void checkIdle() {
+        GetEventsArg arg = this.current;
+        if(closed || idleTimeout <= 0 || arg == null) {
+            return;
+        }
+        long idle = System.currentTimeMillis() - lastActivity;
+        if(idle >= idleTimeout && arg.getInterrupter().set(Boolean.TRUE)) {
+            log.info("Events stream of '{}' node has no events in {} ms, reconnect it.", nodeName, idle);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        GetEventsArg arg = this.current;
+        if(arg != null) {
+            arg.getInterrupter().set(Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NodeEventsStream{" + nodeName + "}";
+    }
+}
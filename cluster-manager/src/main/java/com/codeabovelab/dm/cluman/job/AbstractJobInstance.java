@@ -17,6 +17,7 @@
 package com.codeabovelab.dm.cluman.job;
 
 import com.codeabovelab.dm.common.security.TempAuth;
+import com.codeabovelab.dm.common.utils.RingBuffer;
 import com.codeabovelab.dm.common.utils.SafeCloseable;
 import com.google.common.base.MoreObjects;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -31,10 +32,8 @@ import org.springframework.util.Assert;
 
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -107,7 +106,7 @@ public abstract class AbstractJobInstance implements JobInstance {
     protected volatile Future<?> executeHandle;
     private final Authentication authentication;
     private final JobWatcher watcher;
-    private final List<JobEvent> events = new CopyOnWriteArrayList<>();
+    private final RingBuffer<JobEvent> events = new RingBuffer<>(MAX_EVENTS);
 
     public AbstractJobInstance(Config config) {
         Assert.notNull(config.parameters, "parameters is null");
@@ -168,9 +167,6 @@ public abstract class AbstractJobInstance implements JobInstance {
     private void sendEvent(JobEvent event) {
         this.events.add(event);
         this.manager.getBus().accept(event);
-        while(this.events.size() > MAX_EVENTS) {
-            this.events.remove(0);
-        }
         // we use watcher instead of subscription on bus, because it binds with concrete instance
         //  and also receive instance reference (event does not have reference to instance)
         if(watcher != null) {
@@ -249,7 +245,7 @@ public abstract class AbstractJobInstance implements JobInstance {
 
     @Override
     public List<JobEvent> getLog() {
-        return Collections.unmodifiableList(this.events);
+        return this.events.snapshot();
     }
 
     @Override
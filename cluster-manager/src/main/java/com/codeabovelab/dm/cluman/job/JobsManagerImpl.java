@@ -48,6 +48,10 @@ public class JobsManagerImpl implements JobsManager, SmartLifecycle {
     private Map<String, JobFactory> factories;
     private final MessageBus<JobEvent> bus;
     private final ConcurrentMap<JobParameters, JobInstance> jobs = new ConcurrentHashMap<>();
+    /**
+     * Index of {@link #jobs} by {@link JobInfo#getId()}, updated on create and clean.
+     */
+    private final ConcurrentMap<String, JobInstance> jobsById = new ConcurrentHashMap<>();
     private final ExecutorService executor;
     private final ListableBeanFactory beanFactory;
     private final JobBeanDescriptionFactory descFactory;
@@ -107,8 +111,12 @@ public class JobsManagerImpl implements JobsManager, SmartLifecycle {
         // we remove jobs which has been ended at more than one day ago
         LocalDateTime last = LocalDateTime.now().minusSeconds(jobLifetime);
         for(JobInstance jobInstance: list) {
-            if(last.isAfter(jobInstance.getInfo().getEndTime())) {
-                this.jobs.remove(jobInstance.getJobContext().getParameters());
+            JobInfo info = jobInstance.getInfo();
+            LocalDateTime endTime = info.getEndTime();
+            // job which is not ended has no end time
+            if(endTime != null && last.isAfter(endTime)) {
+                this.jobs.remove(jobInstance.getJobContext().getParameters(), jobInstance);
+                this.jobsById.remove(info.getId(), jobInstance);
             }
         }
     }
@@ -151,7 +159,7 @@ public class JobsManagerImpl implements JobsManager, SmartLifecycle {
 
     @Override
     public JobInstance getJob(String id) {
-        return jobs.values().stream().filter(j -> j.getInfo().getId().equals(id)).findFirst().orElse(null);
+        return jobsById.get(id);
     }
 
     @Override
@@ -159,7 +167,9 @@ public class JobsManagerImpl implements JobsManager, SmartLifecycle {
         return jobs.computeIfAbsent(parameters, (params) -> {
             String type = parameters.getType();
             JobFactory jobFactory = getFactory(type);
-            return jobFactory.create(parameters);
+            JobInstance instance = jobFactory.create(parameters);
+            jobsById.put(instance.getInfo().getId(), instance);
+            return instance;
         });
     }
 
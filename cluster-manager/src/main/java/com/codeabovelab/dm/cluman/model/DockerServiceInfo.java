@@ -17,11 +17,10 @@
 package com.codeabovelab.dm.cluman.model;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import lombok.Data;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 /**
  * Information about Doker service and its nodes. <p/>
@@ -42,6 +41,11 @@ public class DockerServiceInfo {
     private final Integer offNodeCount;
 
     private final List<NodeInfo> nodeList;
+    /**
+     * Errors of nodes which can not be queried, when info is aggregated from many nodes.
+     * Key is a node name.
+     */
+    private final Map<String, String> nodeErrors;
 
     private DockerServiceInfo(Builder builder) {
         this.id = builder.id;
@@ -54,6 +58,7 @@ public class DockerServiceInfo {
         this.nodeCount = builder.nodeCount;
         this.offNodeCount = builder.offNodeCount;
         this.nodeList = ImmutableList.copyOf(builder.nodeList);
+        this.nodeErrors = ImmutableMap.copyOf(builder.nodeErrors);
     }
 
     public static Builder builder() {
@@ -72,6 +77,7 @@ public class DockerServiceInfo {
         private Integer nodeCount;
         private Integer offNodeCount;
         private final List<NodeInfo> nodeList = new ArrayList<>();
+        private final Map<String, String> nodeErrors = new HashMap<>();
 
         private Builder() {
         }
@@ -91,6 +97,7 @@ public class DockerServiceInfo {
             setNodeList(o.getNodeList());
             setNodeCount(o.getNodeCount());
             setOffNodeCount(o.getOffNodeCount());
+            setNodeErrors(o.getNodeErrors());
             return this;
         }
 
@@ -150,5 +157,17 @@ public class DockerServiceInfo {
                 this.nodeList.addAll(nodeList);
             }
         }
+
+        public Builder nodeErrors(Map<String, String> nodeErrors) {
+            setNodeErrors(nodeErrors);
+            return this;
+        }
+
+        public void setNodeErrors(Map<String, String> nodeErrors) {
+            this.nodeErrors.clear();
+            if(nodeErrors != null) {
+                this.nodeErrors.putAll(nodeErrors);
+            }
+        }
     }
 }
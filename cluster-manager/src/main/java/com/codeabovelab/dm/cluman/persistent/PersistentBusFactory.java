@@ -16,6 +16,7 @@
 
 package com.codeabovelab.dm.cluman.persistent;
 
+import com.codeabovelab.dm.cluman.model.EventWithTime;
 import com.codeabovelab.dm.common.fc.FbJacksonAdapter;
 import com.codeabovelab.dm.common.fc.FbQueue;
 import com.codeabovelab.dm.common.fc.FbStorage;
@@ -57,11 +58,15 @@ public class PersistentBusFactory implements InitializingBean, DisposableBean {
         private final MessageBusImpl<T, MessageSubscriptionsWrapper<T>> bus;
 
         public PersistentBus(Class<T> type, String id, int size) {
-            this.queue = FbQueue.builder(new FbJacksonAdapter<>(objectMapper, type))
+            FbQueue.Builder<T> qb = FbQueue.builder(new FbJacksonAdapter<>(objectMapper, type))
               .id(id)
               .storage(fbStorage)
-              .maxSize(size)
-              .build();
+              .maxSize(size);
+            if(EventWithTime.class.isAssignableFrom(type)) {
+                // time index allow to skip old files in 'events since' queries
+                qb.timestamp(e -> ((EventWithTime) e).getTimeInMilliseconds());
+            }
+            this.queue = qb.build();
             this.queueListener = t -> queue.push(t);
             this.bus = MessageBusImpl
               .builder(type, MessageSubscriptionsWrapper::new)
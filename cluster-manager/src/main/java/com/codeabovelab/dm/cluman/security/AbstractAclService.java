@@ -53,6 +53,24 @@ public abstract class AbstractAclService implements AclService {
         return map;
     }
 
+    /**
+     * Read acls of objects like {@link #readAclsById(List)}, but instead of failing on absent acls
+     * it return only found acls.
+     * @param objects identities of objects
+     * @return map with acls of found objects only
+     */
+    public Map<ObjectIdentity, Acl> readExistingAclsById(List<ObjectIdentity> objects) {
+        Map<ObjectIdentity, Acl> map = new HashMap<>();
+        for(ObjectIdentity object: objects) {
+            try {
+                map.put(object, readAclById(object));
+            } catch (NotFoundException e) {
+                // skip absent
+            }
+        }
+        return map;
+    }
+
     /**
      * used for publish permissions to ui
      * @param oid
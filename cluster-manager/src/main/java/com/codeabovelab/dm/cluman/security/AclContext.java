@@ -26,15 +26,23 @@ import com.codeabovelab.dm.common.security.dto.PermissionData;
 import org.springframework.security.acls.model.*;
 import org.springframework.util.Assert;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Context for checking of access for current user. <p/>
+ * It caches read acls (including absent), therefore it must not live longer than one request.
  */
 public class AclContext {
+    /**
+     * Marker of acl which can not be found.
+     */
+    private static final Optional<Acl> ABSENT = Optional.empty();
     private final AclService aclService;
     private final ExtPermissionGrantingStrategy pgs;
     private final List<Sid> sids;
+    private final ConcurrentMap<ObjectIdentity, Optional<Acl>> acls = new ConcurrentHashMap<>();
 
     AclContext(AclService aclService, ExtPermissionGrantingStrategy pgs, List<Sid> sids) {
         this.aclService = aclService;
@@ -53,14 +61,62 @@ public class AclContext {
         if (isAdminFor(o)) {
             return true;
         }
+        Acl acl = getAcl(o);
+        if(acl == null) {
+            return false;
+        }
         try {
-            Acl acl = aclService.readAclById(o);
             return acl.isGranted(Arrays.asList(perms), sids, false);
         } catch (NotFoundException e) {
             return false;
         }
     }
 
+    /**
+     * Read acls of specified objects in one batch, and save them in this context. It allow to avoid
+     * reading of acl for each object when check many objects.
+     * @param oids identities of objects
+     */
+    public void prefetch(Collection<? extends ObjectIdentity> oids) {
+        List<ObjectIdentity> absent = new ArrayList<>();
+        for(ObjectIdentity oid: oids) {
+            if(!acls.containsKey(oid) && !isAdminFor(oid)) {
+                absent.add(oid);
+            }
+        }
+        if(absent.isEmpty()) {
+            return;
+        }
+        Map<ObjectIdentity, Acl> map;
+        if(aclService instanceof AbstractAclService) {
+            map = ((AbstractAclService) aclService).readExistingAclsById(absent);
+        } else {
+            try {
+                map = aclService.readAclsById(absent);
+            } catch (NotFoundException e) {
+                // some objects may be removed, their acls will be read one by one
+                return;
+            }
+        }
+        for(ObjectIdentity oid: absent) {
+            // objects which is not found, for example not registered yet, is cached as absent
+            acls.putIfAbsent(oid, Optional.ofNullable(map.get(oid)));
+        }
+    }
+
+    private Acl getAcl(ObjectIdentity oid) {
+        Optional<Acl> acl = acls.get(oid);
+        if(acl == null) {
+            try {
+                acl = Optional.of(aclService.readAclById(oid));
+            } catch (NotFoundException e) {
+                acl = ABSENT;
+            }
+            acls.putIfAbsent(oid, acl);
+        }
+        return acl.orElse(null);
+    }
+
     private boolean isAdminFor(ObjectIdentity o) {
         final String role = Authorities.adminOf(o.getType());
         final String objectTenant = MultiTenancySupport.getTenant(o);
@@ -92,11 +148,10 @@ public class AclContext {
         if(isAdminFor(oid)) {
             return PermissionData.ALL;
         }
-        try {
-            Acl realAcl = aclService.readAclById(oid);
-            return pgs.getPermission(realAcl, sids);
-        } catch (NotFoundException e) {
+        Acl realAcl = getAcl(oid);
+        if(realAcl == null) {
             return PermissionData.NONE;
         }
+        return pgs.getPermission(realAcl, sids);
     }
 }
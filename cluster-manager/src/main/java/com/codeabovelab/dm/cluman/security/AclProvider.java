@@ -18,7 +18,11 @@ package com.codeabovelab.dm.cluman.security;
 
 import com.codeabovelab.dm.common.security.acl.AclSource;
 
+import org.springframework.security.acls.model.NotFoundException;
+
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -27,6 +31,26 @@ import java.util.function.Consumer;
 public interface AclProvider {
     AclSource provide(Serializable id);
 
+    /**
+     * Provide acl sources for many objects at once. Ids of absent objects are skipped. Implementations may
+     * override it to share work between objects.
+     * @param ids ids of objects
+     * @param consumer consumer of id and its acl source
+     */
+    default void provideAll(Collection<? extends Serializable> ids, BiConsumer<Serializable, AclSource> consumer) {
+        for(Serializable id: ids) {
+            AclSource source;
+            try {
+                source = provide(id);
+            } catch (NotFoundException e) {
+                continue;
+            }
+            if(source != null) {
+                consumer.accept(id, source);
+            }
+        }
+    }
+
     void update(Serializable id, AclModifier operator);
 
     void list(Consumer<AclSource> consumer);
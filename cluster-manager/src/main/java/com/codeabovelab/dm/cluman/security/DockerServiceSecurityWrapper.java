@@ -117,8 +117,12 @@ public class DockerServiceSecurityWrapper implements DockerService {
     public List<DockerContainer> getContainers(GetContainersArg arg) {
         AclContext context = aclContextFactory.getContext();
         checkServiceAccessInternal(context, Action.READ);
-        return service.getContainers(arg).stream().filter((img) -> {
-            return context.isGranted(SecuredType.CONTAINER.id(img.getId()), Action.READ);
+        List<DockerContainer> containers = service.getContainers(arg);
+        context.prefetch(containers.stream()
+          .map((c) -> SecuredType.CONTAINER.id(c.getId()))
+          .collect(Collectors.toList()));
+        return containers.stream().filter((c) -> {
+            return context.isGranted(SecuredType.CONTAINER.id(c.getId()), Action.READ);
         }).collect(Collectors.toList());
     }
 
@@ -20,6 +20,9 @@ import com.codeabovelab.dm.common.security.acl.AclImpl;
 import com.codeabovelab.dm.common.security.acl.AclSource;
 import org.springframework.security.acls.model.*;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,6 +56,44 @@ public class ProvidersAclService extends AbstractAclService {
         return new AclImpl(this.pgs, source);
     }
 
+    /**
+     * Read acls through {@link AclProvider#provideAll(java.util.Collection, java.util.function.BiConsumer)}, so
+     * provider can resolve common parts once for all objects.
+     */
+    @Override
+    public Map<ObjectIdentity, Acl> readAclsById(List<ObjectIdentity> objects, List<Sid> sids) throws NotFoundException {
+        Map<ObjectIdentity, Acl> map = readExistingAclsById(objects);
+        List<ObjectIdentity> absent = new ArrayList<>();
+        for(ObjectIdentity oid: objects) {
+            if(!map.containsKey(oid)) {
+                absent.add(oid);
+            }
+        }
+        if(!absent.isEmpty()) {
+            throw new NotFoundException("Can not find acls for ids : " + absent);
+        }
+        return map;
+    }
+
+    @Override
+    public Map<ObjectIdentity, Acl> readExistingAclsById(List<ObjectIdentity> objects) {
+        Map<String, Map<Serializable, ObjectIdentity>> byType = new HashMap<>();
+        for(ObjectIdentity oid: objects) {
+            byType.computeIfAbsent(oid.getType(), t -> new HashMap<>()).put(oid.getIdentifier(), oid);
+        }
+        Map<ObjectIdentity, Acl> map = new HashMap<>();
+        byType.forEach((type, oids) -> {
+            AclProvider provider = providers.get(type);
+            if(provider == null) {
+                return;
+            }
+            provider.provideAll(new ArrayList<>(oids.keySet()), (id, source) -> {
+                map.put(oids.get(id), new AclImpl(this.pgs, source));
+            });
+        });
+        return map;
+    }
+
     @Override
     public AclSource getAclSource(ObjectIdentity oid) {
         AclProvider provider = getAclProvider(oid);
@@ -28,6 +28,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.acls.model.NotFoundException;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -50,8 +55,54 @@ public abstract class VirtualAclProvider implements AclProvider {
             // when node is unbound to any cluster we grant all to any user
             return makeAcl(id);
         }
+        return AclSource.builder().from(fromCluster(cluster)).objectIdentity(toOid(id)).build();
+    }
+
+    /**
+     * Objects of one cluster has same acl, therefore we build it once per cluster.
+     */
+    @Override
+    public void provideAll(Collection<? extends Serializable> ids, BiConsumer<Serializable, AclSource> consumer) {
+        Map<Serializable, String> idToCluster = new LinkedHashMap<>();
+        for(Serializable id: ids) {
+            try {
+                idToCluster.put(id, getCluster(id));
+            } catch (NotFoundException e) {
+                // skip absent
+            }
+        }
+        provideForClusters(idToCluster, consumer);
+    }
+
+    /**
+     * Provide acls for objects with already resolved clusters.
+     * @param idToCluster map of object id to its cluster, cluster may be null for unbound objects
+     * @param consumer consumer of id and its acl source
+     */
+    protected void provideForClusters(Map<? extends Serializable, String> idToCluster, BiConsumer<Serializable, AclSource> consumer) {
+        Map<String, AclSource> clusters = new HashMap<>();
+        for(Map.Entry<? extends Serializable, String> e: idToCluster.entrySet()) {
+            Serializable id = e.getKey();
+            String cluster = e.getValue();
+            AclSource acl;
+            if(cluster == null) {
+                acl = makeAcl(id);
+            } else {
+                AclSource clusterAcl = clusters.computeIfAbsent(cluster, this::fromCluster);
+                acl = AclSource.builder().from(clusterAcl).objectIdentity(toOid(id)).build();
+            }
+            consumer.accept(id, acl);
+        }
+    }
+
+    /**
+     * Make acl which is derived from acl of cluster, note that its object identity is identity of cluster.
+     * @param cluster name of cluster
+     * @return acl source
+     */
+    private AclSource fromCluster(String cluster) {
         AclSource clusterAcl = clusterAclProvider.provide(cluster);
-        AclSource.Builder aclsb = AclSource.builder().objectIdentity(toOid(id))
+        AclSource.Builder aclsb = AclSource.builder().objectIdentity(clusterAcl.getObjectIdentity())
           .owner(clusterAcl.getOwner());
         clusterAcl.getEntries().forEach(ace -> {
             boolean alterInside = ace.getPermission().has(Action.ALTER_INSIDE);
@@ -130,6 +130,9 @@ public class ClusterApi {
         Map<String, String> apps = UiUtils.mapAppContainer(applicationService, nodesGroup);
         ExtendedAssert.notFound(service, "Service for " + cluster + " is null.");
         List<DockerContainer> containers = service.getContainers(arg);
+        ac.prefetch(containers.stream()
+          .map(c -> SecuredType.CONTAINER.id(c.getId()))
+          .collect(Collectors.toList()));
         for (DockerContainer container : containers) {
             UiContainer uic = UiContainer.from(container);
             uic.enrich(discoveryStorage, containerStorage);
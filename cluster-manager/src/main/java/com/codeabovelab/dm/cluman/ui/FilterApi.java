@@ -16,11 +16,11 @@
 
 package com.codeabovelab.dm.cluman.ui;
 
+import com.codeabovelab.dm.cluman.cluster.filter.FilterFactory;
 import com.codeabovelab.dm.cluman.ui.model.UISearchQuery;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.ObjectUtils;
 import org.springframework.expression.spel.standard.SpelExpression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -37,8 +37,6 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 @Component
 public class FilterApi {
 
-    private static final SpelExpressionParser parser = new SpelExpressionParser();
-
     public <T> Collection<T> listNodes(Collection<T> collection, UISearchQuery searchQuery) {
         final String criteria = searchQuery.getCriterias();
         final List<UISearchQuery.SearchOrder> orders = firstNonNull(searchQuery.getOrders(), Collections.emptyList());
@@ -58,12 +56,18 @@ public class FilterApi {
 
         final List<Criterion<T>> criterions = new ArrayList<>();
         if (StringUtils.hasText(criteria)) {
+            SpelExpression expr;
+            try {
+                expr = FilterFactory.parseSpel(criteria);
+            } catch (Exception e) {
+                log.error("error during parsing '" + criteria + "'", e);
+                return Collections.emptyList();
+            }
             criterions.add(fromPredicate(w -> {
                 try {
-                    SpelExpression expr = parser.parseRaw(criteria);
                     return (Boolean) expr.getValue(w);
                 } catch (Exception e) {
-                    log.error("error during parsing '" + criteria + "', '" + w + "'", e);
+                    log.error("error during evaluating '" + criteria + "', '" + w + "'", e);
                     return false;
                 }
             }));
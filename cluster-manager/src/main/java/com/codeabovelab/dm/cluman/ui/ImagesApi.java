@@ -27,7 +27,6 @@ import com.codeabovelab.dm.cluman.cluster.docker.model.ImageItem;
 import com.codeabovelab.dm.cluman.cluster.filter.Filter;
 import com.codeabovelab.dm.cluman.cluster.filter.FilterFactory;
 import com.codeabovelab.dm.cluman.cluster.registry.RegistryRepository;
-import com.codeabovelab.dm.cluman.cluster.registry.RegistrySearchHelper;
 import com.codeabovelab.dm.cluman.cluster.registry.RegistryService;
 import com.codeabovelab.dm.cluman.cluster.registry.data.ImageCatalog;
 import com.codeabovelab.dm.cluman.cluster.registry.data.SearchResult;
@@ -99,14 +98,14 @@ public class ImagesApi {
         }
         if (StringUtils.hasText(registryParam)) {
             List<String> registries = SPLITTER.splitToList(registryParam);
-            RegistrySearchHelper rsh = new RegistrySearchHelper(query, page, size);
+            List<RegistryService> services = new ArrayList<>(registries.size());
             for(String registry: registries) {
                 RegistryService service = registryRepository.getByName(registry);
                 if(service != null) {
-                    rsh.search(service);
+                    services.add(service);
                 }
             }
-            result = rsh.collect();
+            result = registryRepository.search(services, query, page, size);
         } else {
             result = registryRepository.search(query, page, size);
         }
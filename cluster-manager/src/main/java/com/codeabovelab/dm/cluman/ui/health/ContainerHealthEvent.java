@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.cluman.ui.health;
+
+import com.codeabovelab.dm.cluman.model.Event;
+import com.codeabovelab.dm.common.healthcheck.ServiceHealthCheckResult;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Result of container health probe. Published when health of container is changed.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public final class ContainerHealthEvent extends Event {
+
+    @EqualsAndHashCode(callSuper = true)
+    @Data
+    public static class Builder extends Event.Builder<Builder, ContainerHealthEvent> {
+
+        private String containerId;
+        private String node;
+        private ServiceHealthCheckResult result;
+
+        public Builder containerId(String containerId) {
+            setContainerId(containerId);
+            return this;
+        }
+
+        public Builder node(String node) {
+            setNode(node);
+            return this;
+        }
+
+        public Builder result(ServiceHealthCheckResult result) {
+            setResult(result);
+            return this;
+        }
+
+        @Override
+        public ContainerHealthEvent build() {
+            return new ContainerHealthEvent(this);
+        }
+    }
+
+    /**
+     * Id of message bus
+     */
+    public static final String BUS = "bus.cluman.containerHealth";
+    private final String containerId;
+    private final String node;
+    private final ServiceHealthCheckResult result;
+
+    @JsonCreator
+    public ContainerHealthEvent(Builder b) {
+        super(b);
+        this.containerId = b.containerId;
+        this.node = b.node;
+        this.result = b.result;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isHealthy() {
+        return result != null && result.isHealthy();
+    }
+}
@@ -16,35 +16,334 @@
 
 package com.codeabovelab.dm.cluman.ui.health;
 
-import com.codeabovelab.dm.cluman.cluster.docker.management.DockerUtils;
+import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
+import com.codeabovelab.dm.cluman.cluster.docker.management.argument.GetContainersArg;
 import com.codeabovelab.dm.cluman.cluster.docker.model.ContainerDetails;
+import com.codeabovelab.dm.cluman.cluster.docker.model.ContainerState;
+import com.codeabovelab.dm.cluman.cluster.docker.model.ExposedPort;
+import com.codeabovelab.dm.cluman.cluster.docker.model.NetworkSettings;
+import com.codeabovelab.dm.cluman.cluster.docker.model.Node;
+import com.codeabovelab.dm.cluman.cluster.docker.model.Port;
+import com.codeabovelab.dm.cluman.cluster.docker.model.Ports;
+import com.codeabovelab.dm.cluman.cluster.docker.model.ProtocolType;
 import com.codeabovelab.dm.cluman.ds.DockerServiceRegistry;
+import com.codeabovelab.dm.cluman.ds.container.ContainerRegistration;
+import com.codeabovelab.dm.cluman.ds.container.ContainerStorage;
+import com.codeabovelab.dm.cluman.model.DockerContainer;
+import com.codeabovelab.dm.cluman.model.NodeInfo;
+import com.codeabovelab.dm.cluman.model.NodeInfoProvider;
+import com.codeabovelab.dm.cluman.model.NodeRegistry;
+import com.codeabovelab.dm.common.healthcheck.HealthCheckResultData;
+import com.codeabovelab.dm.common.healthcheck.HealthCheckResultDataImpl;
 import com.codeabovelab.dm.common.healthcheck.ServiceHealthCheckResult;
+import com.codeabovelab.dm.common.healthcheck.ServiceHealthCheckResultImpl;
+import com.codeabovelab.dm.common.mb.MessageBus;
+import com.codeabovelab.dm.common.mb.Subscriptions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 
 /**
- * Service which doe health check of container.
+ * Service which doe health check of container. <p/>
+ * Each known container is probed periodically (see {@link HealthProbe} for configuration), scheduler only start probes
+ * which are executed on bounded pool of workers. Intervals are jittered for preventing of simultaneous probes.
+ * Probe is configured by labels from {@link ContainerStorage}, state and port bindings of container are taken from
+ * listing of its node, which is loaded once per interval. Last result of each container is cached,
+ * and changes of health are published into {@link ContainerHealthEvent#BUS}.
  */
+@Slf4j
 @Component
-public class HealthCheckService {
+public class HealthCheckService implements DisposableBean {
 
-    private final DockerServiceRegistry dockerServiceRegistry;
+    private static final int WORKERS_QUEUE = 1024;
+
+    final class ProbeTask implements Runnable {
+        private final String id;
+        private volatile boolean cancelled;
+        /**
+         * Probe and node for which {@link #address} is resolved.
+         */
+        private HealthProbe addressProbe;
+        private String addressNode;
+        private InetSocketAddress address;
+
+        ProbeTask(String id) {
+            this.id = id;
+        }
+
+        /**
+         * Invoked by scheduler, it only pass probe to workers, because probe may block on io.
+         */
+        @Override
+        public void run() {
+            if(cancelled) {
+                return;
+            }
+            try {
+                workers.execute(this::check);
+            } catch (RejectedExecutionException e) {
+                log.warn("Can not probe container {}, due to overloaded executor", id);
+                schedule(HealthCheckService.this.interval);
+            }
+        }
+
+        private void check() {
+            if(cancelled) {
+                return;
+            }
+            long interval = HealthCheckService.this.interval;
+            try {
+                ContainerRegistration cr = containerStorage.getContainer(id);
+                if(cr == null) {
+                    // probe will be cancelled at next refresh
+                    onResult(this, null, fail(id, "No containers with id: " + id));
+                } else {
+                    // node is read at each run, because container may be moved by update
+                    String node = cr.getNode();
+                    HealthProbe probe = HealthProbe.fromLabels(cr.getContainer().getLabels());
+                    if(probe.getInterval() > 0) {
+                        interval = probe.getInterval();
+                    }
+                    onResult(this, node, probe(probe, node, interval));
+                }
+            } catch (Exception e) {
+                log.error("Can not probe container {}", id, e);
+            } finally {
+                schedule(interval);
+            }
+        }
+
+        private void schedule(long interval) {
+            if(!cancelled && !scheduler.isShutdown()) {
+                scheduler.schedule(this, jitter(interval), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Probe container. State and port bindings of container are taken from listing of its node, which is
+         * shared between probes of node containers. Container is inspected only when port is not published,
+         * and probe need its ip address.
+         */
+        private ServiceHealthCheckResult probe(HealthProbe probe, String node, long interval) {
+            if(probe.getType() != HealthProbe.Type.RUNNING) {
+                InetSocketAddress address = null;
+                if(probe.getHost() != null) {
+                    address = new InetSocketAddress(probe.getHost(), probe.getPort());
+                } else if(probe.equals(addressProbe) && Objects.equals(node, addressNode)) {
+                    address = this.address;
+                }
+                if(address != null) {
+                    ServiceHealthCheckResult result = toResult(probe.check(address, timeout));
+                    if(!result.isHealthy()) {
+                        // port bindings may be changed by restart of container, so we resolve it again
+                        this.address = null;
+                    }
+                    return result;
+                }
+            }
+            DockerContainer container = node == null ? null : getNodeContainers(node).get(id, interval);
+            if(container == null) {
+                return fail(id, "No containers with id: " + id);
+            }
+            if(probe.getType() == HealthProbe.Type.RUNNING) {
+                return toResult(HealthCheckResultDataImpl.builder()
+                  .id(HealthProbe.Type.RUNNING.toString())
+                  .healthy(container.isRun())
+                  .message(container.getStatus())
+                  .build());
+            }
+            InetSocketAddress address = resolveAddress(container, probe, node);
+            if(address == null) {
+                // port is not published, so we need ip address of container
+                DockerService service = nodeRegistry.getNodeService(node);
+                ContainerDetails details = service == null ? null : service.getContainer(id);
+                if(details == null) {
+                    return fail(id, "No containers with id: " + id);
+                }
+                address = resolveAddress(details, probe, node);
+            }
+            if(address == null) {
+                return fail(id, "Can not resolve address of container port: " + probe.getPort());
+            }
+            this.addressProbe = probe;
+            this.addressNode = node;
+            this.address = address;
+            return toResult(probe.check(address, timeout));
+        }
+    }
+
+    /**
+     * Containers of node from last listing, it allow to load state of all node containers by one request
+     * per interval instead of inspecting each container.
+     */
+    private final class NodeContainers {
+        private final String node;
+        private long time;
+        private Map<String, DockerContainer> containers;
+
+        NodeContainers(String node) {
+            this.node = node;
+        }
+
+        /**
+         * Container from listing which is not older than specified age, otherwise node is listed again.
+         * @param id container id
+         * @param maxAge max age of listing in ms
+         * @return container or null when it absent or node is not available
+         */
+        synchronized DockerContainer get(String id, long maxAge) {
+            long now = System.currentTimeMillis();
+            if(containers == null || now - time >= maxAge) {
+                DockerService service = nodeRegistry.getNodeService(node);
+                List<DockerContainer> list = service == null ? null : service.getContainers(new GetContainersArg(true));
+                if(list == null) {
+                    containers = null;
+                    return null;
+                }
+                Map<String, DockerContainer> map = new HashMap<>();
+                list.forEach(dc -> map.put(dc.getId(), dc));
+                containers = map;
+                time = now;
+            }
+            return containers.get(id);
+        }
+    }
 
+    private final DockerServiceRegistry dockerServiceRegistry;
+    private final NodeRegistry nodeRegistry;
+    private final NodeInfoProvider nodeInfoProvider;
+    private final ContainerStorage containerStorage;
+    private final MessageBus<ContainerHealthEvent> bus;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService workers;
+    private final ConcurrentMap<String, NodeContainers> nodes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ContainerHealthEvent> results = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ProbeTask> probes = new ConcurrentHashMap<>();
+    private final long interval;
+    private final long timeout;
 
     @Autowired
-    public HealthCheckService(DockerServiceRegistry dockerServiceRegistry) {
+    public HealthCheckService(DockerServiceRegistry dockerServiceRegistry,
+                              NodeRegistry nodeRegistry,
+                              NodeInfoProvider nodeInfoProvider,
+                              ContainerStorage containerStorage,
+                              @Qualifier(ContainerHealthEvent.BUS) MessageBus<ContainerHealthEvent> bus,
+                              @Value("${dm.healthcheck.threads:8}") int threads,
+                              @Value("${dm.healthcheck.interval:30000}") long interval,
+                              @Value("${dm.healthcheck.timeout:5000}") long timeout) {
+        this(dockerServiceRegistry, nodeRegistry, nodeInfoProvider, containerStorage, bus,
+          createScheduler(), createWorkers(threads), interval, timeout);
+    }
+
+    HealthCheckService(DockerServiceRegistry dockerServiceRegistry,
+                       NodeRegistry nodeRegistry,
+                       NodeInfoProvider nodeInfoProvider,
+                       ContainerStorage containerStorage,
+                       MessageBus<ContainerHealthEvent> bus,
+                       ScheduledExecutorService scheduler,
+                       ExecutorService workers,
+                       long interval,
+                       long timeout) {
+        Assert.isTrue(interval > 0, "interval must be greater than zero");
         this.dockerServiceRegistry = dockerServiceRegistry;
+        this.nodeRegistry = nodeRegistry;
+        this.nodeInfoProvider = nodeInfoProvider;
+        this.containerStorage = containerStorage;
+        this.bus = bus;
+        this.scheduler = scheduler;
+        this.workers = workers;
+        this.interval = interval;
+        this.timeout = timeout;
     }
 
+    private static ScheduledExecutorService createScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(HealthCheckService.class.getSimpleName() + "-scheduler-%d")
+          .build());
+    }
+
+    private static ExecutorService createWorkers(int threads) {
+        Assert.isTrue(threads > 0, "threads must be greater than zero");
+        return new ThreadPoolExecutor(threads, threads, 1L, TimeUnit.MINUTES,
+          new ArrayBlockingQueue<>(WORKERS_QUEUE), new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat(HealthCheckService.class.getSimpleName() + "-%d")
+            .build());
+    }
+
+    public Subscriptions<ContainerHealthEvent> getSubscriptions() {
+        return bus.asSubscriptions();
+    }
+
+    /**
+     * Schedule probes for new containers and cancel probes of removed.
+     */
+    @Scheduled(fixedDelayString = "${dm.healthcheck.refresh:60000}")
+    public void refreshProbes() {
+        Set<String> actual = new HashSet<>();
+        Set<String> actualNodes = new HashSet<>();
+        for(ContainerRegistration cr: containerStorage.getContainers()) {
+            String id = cr.getId();
+            actual.add(id);
+            actualNodes.add(cr.getNode());
+            probes.computeIfAbsent(id, (i) -> {
+                ProbeTask task = new ProbeTask(i);
+                // random initial delay spread probes over interval
+                scheduler.schedule(task, ThreadLocalRandom.current().nextLong(interval), TimeUnit.MILLISECONDS);
+                return task;
+            });
+        }
+        Iterator<ProbeTask> i = probes.values().iterator();
+        while(i.hasNext()) {
+            ProbeTask task = i.next();
+            if(!actual.contains(task.id)) {
+                task.cancelled = true;
+                i.remove();
+                results.remove(task.id);
+            }
+        }
+        nodes.keySet().retainAll(actualNodes);
+    }
+
+    private NodeContainers getNodeContainers(String node) {
+        return nodes.computeIfAbsent(node, NodeContainers::new);
+    }
+
+    /**
+     * Last results of all probed containers.
+     * @param callback consumer of results
+     */
     public void checkAll(Consumer<ServiceHealthCheckResult> callback) {
-        //TODO we need to implement some hatcheck here
-        throw new UnsupportedOperationException("we need to implement some hatcheck here");
+        results.values().forEach(e -> callback.accept(e.getResult()));
+    }
+
+    /**
+     * Last result of container probe.
+     * @param id container id
+     * @return event or null when container is not probed yet
+     */
+    public ContainerHealthEvent getLastResult(String id) {
+        return results.get(id);
     }
 
     /**
@@ -60,8 +359,167 @@ public class HealthCheckService {
         if(container == null) {
             throw new RuntimeException("No containers with id: " + id);
         }
-        final String hostname = DockerUtils.getFullHostName(container.getConfig());
-        Assert.hasText(hostname, "container.config.hostname is null or empty, it strange");
-        throw new UnsupportedOperationException("we need to implement some hatcheck here");
+        Node node = container.getNode();
+        String nodeName = node == null ? null : node.getName();
+        ServiceHealthCheckResult result = check(container, HealthProbe.fromLabels(container.getLabels()), nodeName, timeout);
+        ProbeTask task = probes.get(container.getId());
+        if(task != null) {
+            // result of container which is not probed is not stored, because nobody remove it
+            onResult(task, nodeName, result);
+        }
+        return result;
+    }
+
+    private ServiceHealthCheckResult check(ContainerDetails container, HealthProbe probe, String node, long timeout) {
+        HealthCheckResultData data;
+        if(probe.getType() == HealthProbe.Type.RUNNING) {
+            ContainerState state = container.getState();
+            boolean running = state != null && state.isRunning();
+            data = HealthCheckResultDataImpl.builder()
+              .id(HealthProbe.Type.RUNNING.toString())
+              .healthy(running)
+              .message(state == null ? null : state.getStatus())
+              .build();
+        } else {
+            InetSocketAddress address = resolveAddress(container, probe, node);
+            if(address == null) {
+                return fail(container.getId(), "Can not resolve address of container port: " + probe.getPort());
+            }
+            data = probe.check(address, timeout);
+        }
+        return toResult(data);
+    }
+
+    private static ServiceHealthCheckResult toResult(HealthCheckResultData data) {
+        return ServiceHealthCheckResultImpl.builder()
+          .healthy(data.isHealthy())
+          .results(Collections.singletonList(data))
+          .build();
+    }
+
+    private InetSocketAddress resolveAddress(ContainerDetails container, HealthProbe probe, String node) {
+        int port = probe.getPort();
+        if(probe.getHost() != null) {
+            return new InetSocketAddress(probe.getHost(), port);
+        }
+        NetworkSettings ns = container.getNetworkSettings();
+        if(ns == null) {
+            return null;
+        }
+        Ports ports = ns.getPorts();
+        Ports.Binding[] bindings = ports == null ? null : ports.getBindings().get(ExposedPort.tcp(port));
+        if(bindings != null) {
+            for(Ports.Binding binding: bindings) {
+                Integer hostPort = binding.getHostPort();
+                if(hostPort == null) {
+                    continue;
+                }
+                String hostIp = binding.getHostIp();
+                if(!StringUtils.hasText(hostIp) || "0.0.0.0".equals(hostIp)) {
+                    hostIp = getNodeHost(container, node);
+                }
+                if(hostIp != null) {
+                    return new InetSocketAddress(hostIp, hostPort);
+                }
+            }
+        }
+        String ip = ns.getIpAddress();
+        return StringUtils.hasText(ip) ? new InetSocketAddress(ip, port) : null;
+    }
+
+    /**
+     * Resolve address from published ports of container.
+     */
+    private InetSocketAddress resolveAddress(DockerContainer container, HealthProbe probe, String node) {
+        List<Port> ports = container.getPorts();
+        if(ports == null) {
+            return null;
+        }
+        for(Port port: ports) {
+            if(port.getPrivatePort() != probe.getPort() || port.getPublicPort() <= 0 || port.getType() != ProtocolType.TCP) {
+                continue;
+            }
+            String hostIp = port.getIp();
+            if(!StringUtils.hasText(hostIp) || "0.0.0.0".equals(hostIp)) {
+                hostIp = getNodeHost(null, node);
+            }
+            if(hostIp != null) {
+                return new InetSocketAddress(hostIp, port.getPublicPort());
+            }
+        }
+        return null;
+    }
+
+    private String getNodeHost(ContainerDetails container, String nodeName) {
+        Node node = container == null ? null : container.getNode();
+        if(node != null && StringUtils.hasText(node.getIp())) {
+            return node.getIp();
+        }
+        NodeInfo nodeInfo = nodeName == null ? null : nodeInfoProvider.getNodeInfo(nodeName);
+        String address = nodeInfo == null ? null : nodeInfo.getAddress();
+        if(!StringUtils.hasText(address)) {
+            return null;
+        }
+        int portStart = address.lastIndexOf(':');
+        return portStart > 0 ? address.substring(0, portStart) : address;
+    }
+
+    private static ServiceHealthCheckResult fail(String id, String message) {
+        return ServiceHealthCheckResultImpl.builder()
+          .healthy(false)
+          .results(Collections.singletonList(HealthCheckResultDataImpl.builder()
+            .id(id)
+            .healthy(false)
+            .message(message)
+            .build()))
+          .build();
+    }
+
+    /**
+     * Store and publish result of probe. Result of cancelled probe is dropped, because probe may be still
+     * running when its container is removed.
+     */
+    private void onResult(ProbeTask task, String node, ServiceHealthCheckResult result) {
+        String id = task.id;
+        if(!isActual(task)) {
+            return;
+        }
+        ContainerHealthEvent event = ContainerHealthEvent.builder()
+          .containerId(id)
+          .node(node)
+          .result(result)
+          .build();
+        ContainerHealthEvent old = results.put(id, event);
+        if(!isActual(task)) {
+            // probe was cancelled concurrently, and its result may be put after removing in refreshProbes()
+            results.remove(id, event);
+            return;
+        }
+        if(old == null || old.isHealthy() != event.isHealthy()) {
+            bus.accept(event);
+        }
+    }
+
+    private boolean isActual(ProbeTask task) {
+        return !task.cancelled && probes.get(task.id) == task;
+    }
+
+    /**
+     * Interval with random deviation in 10%.
+     */
+    private static long jitter(long interval) {
+        long deviation = interval / 10;
+        if(deviation == 0) {
+            return interval;
+        }
+        return interval - deviation + ThreadLocalRandom.current().nextLong(deviation * 2);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        probes.values().forEach(t -> t.cancelled = true);
+        probes.clear();
+        scheduler.shutdownNow();
+        workers.shutdownNow();
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.cluman.ui.health;
+
+import com.codeabovelab.dm.common.healthcheck.HealthCheckResultData;
+import com.codeabovelab.dm.common.healthcheck.HealthCheckResultDataImpl;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.util.StringUtils;
+
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Health probe of container, it configured through container labels:
+ * <pre>
+ * dm.healthcheck.type - 'http', 'tcp' or 'running' (default), last only check that container is running
+ * dm.healthcheck.port - port of container, on which probe connect
+ * dm.healthcheck.path - path of http probe, default '/'
+ * dm.healthcheck.host - host of probe, by default it resolved from container port bindings
+ * dm.healthcheck.interval - interval between probes in ms
+ * </pre>
+ */
+@Data
+@Builder
+public class HealthProbe {
+
+    public enum Type {
+        RUNNING, HTTP, TCP
+    }
+
+    public static final String LABEL_PREFIX = "dm.healthcheck.";
+    public static final String LABEL_TYPE = LABEL_PREFIX + "type";
+    public static final String LABEL_PORT = LABEL_PREFIX + "port";
+    public static final String LABEL_PATH = LABEL_PREFIX + "path";
+    public static final String LABEL_HOST = LABEL_PREFIX + "host";
+    public static final String LABEL_INTERVAL = LABEL_PREFIX + "interval";
+
+    private static final HealthProbe RUNNING = HealthProbe.builder().type(Type.RUNNING).build();
+
+    private final Type type;
+    /**
+     * Port of container
+     */
+    private final int port;
+    private final String path;
+    /**
+     * Host for probe, when null it must be resolved from container.
+     */
+    private final String host;
+    /**
+     * Interval in ms, zero mean default.
+     */
+    private final long interval;
+
+    /**
+     * Create probe from labels.
+     * @param labels container labels, may be null
+     * @return probe, never null
+     * @throws IllegalArgumentException on invalid labels
+     */
+    public static HealthProbe fromLabels(Map<String, String> labels) {
+        String type = labels == null ? null : labels.get(LABEL_TYPE);
+        if(!StringUtils.hasText(type)) {
+            return RUNNING;
+        }
+        HealthProbeBuilder b = HealthProbe.builder();
+        b.type(Type.valueOf(type.trim().toUpperCase()));
+        String port = labels.get(LABEL_PORT);
+        if(StringUtils.hasText(port)) {
+            b.port(Integer.parseInt(port.trim()));
+        }
+        String path = labels.get(LABEL_PATH);
+        b.path(StringUtils.hasText(path) ? path : "/");
+        b.host(StringUtils.trimWhitespace(labels.get(LABEL_HOST)));
+        String interval = labels.get(LABEL_INTERVAL);
+        if(StringUtils.hasText(interval)) {
+            b.interval(Long.parseLong(interval.trim()));
+        }
+        return b.build();
+    }
+
+    /**
+     * Check specified address, it must not be invoked for {@link Type#RUNNING}.
+     * @param address address which is resolved for {@link #getPort()}
+     * @param timeout timeout in ms
+     * @return result, never null
+     */
+    public HealthCheckResultData check(InetSocketAddress address, long timeout) {
+        HealthCheckResultDataImpl.Builder b = HealthCheckResultDataImpl.builder();
+        b.id(type + " " + address);
+        int intTimeout = (int) Math.max(1, Math.min(timeout, Integer.MAX_VALUE));
+        try {
+            switch (type) {
+                case HTTP:
+                    checkHttp(b, address, intTimeout);
+                    break;
+                case TCP:
+                    try(Socket socket = new Socket()) {
+                        socket.connect(address, intTimeout);
+                    }
+                    b.healthy(true);
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported type: " + type);
+            }
+        } catch (Exception e) {
+            b.healthy(false);
+            b.throwable(e.toString());
+        }
+        return b.build();
+    }
+
+    private void checkHttp(HealthCheckResultDataImpl.Builder b, InetSocketAddress address, int timeout) throws Exception {
+        URL url = new URL("http", address.getHostString(), address.getPort(), path == null ? "/" : path);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try {
+            conn.setConnectTimeout(timeout);
+            conn.setReadTimeout(timeout);
+            conn.setInstanceFollowRedirects(false);
+            int code = conn.getResponseCode();
+            b.healthy(code >= 200 && code < 400);
+            b.message("HTTP " + code);
+        } finally {
+            conn.disconnect();
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class UiUpdateContainers {
     private Float percentage;
     private boolean healthCheckEnabled;
     private boolean rollbackEnabled;
+    private Integer batchSize;
 
     public String getService() {
         return service;
@@ -83,6 +84,18 @@ public class UiUpdateContainers {
         this.rollbackEnabled = rollbackEnabled;
     }
 
+    /**
+     * Max count of containers which is updated simultaneously.
+     * @return count or null
+     */
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
     @Override
     public String toString() {
         return "UiUpdateContainers{" +
@@ -91,6 +104,7 @@ public class UiUpdateContainers {
           ", strategy=" + strategy +
           ", percentage=" + percentage +
           ", healthCheckEnabled=" + healthCheckEnabled +
+          ", batchSize=" + batchSize +
           '}';
     }
 }
@@ -125,9 +125,9 @@ public class EventController {
         if(from == null) {
             from = LocalDateTime.now().minusDays(1);
         }
-        long fromMillis = from.toEpochSecond(ZoneOffset.UTC);
+        long fromMillis = from.toInstant(ZoneOffset.UTC).toEpochMilli();
         FbQueue<?> q = pb.getQueue();
-        Iterator<?> iter = q.iterator();
+        Iterator<?> iter = q.iteratorSince(fromMillis);
         int i = 0;
         while(iter.hasNext()) {
             Object next = iter.next();
@@ -77,6 +77,10 @@ public class UiUpdateContainersController {
         b.parameter(BatchUtils.JP_IMAGE_TARGET_VERSION, req.getVersion());
         b.parameter(HealthCheckContainerTasklet.JP_HEALTH_CHECK_ENABLED, req.isHealthCheckEnabled());
         b.parameter(BatchUtils.JP_ROLLBACK_ENABLE, req.isRollbackEnabled());
+        Integer batchSize = req.getBatchSize();
+        if(batchSize != null) {
+            b.parameter(BatchUtils.JP_BATCH_SIZE, batchSize);
+        }
         //we pass random id, instead job will be cached
         b.parameter("id", Uuids.liteRandom());
         return b.build();
@@ -0,0 +1,63 @@
+package com.codeabovelab.dm.cluman.cluster.docker.management;
+
+import com.codeabovelab.dm.cluman.cluster.docker.model.Frame;
+import com.codeabovelab.dm.cluman.cluster.docker.model.StreamType;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class FrameReaderTest {
+
+    private static void writeFrame(ByteArrayOutputStream out, int type, byte[] payload) {
+        int len = payload.length;
+        out.write(type);
+        out.write(0);
+        out.write(0);
+        out.write(0);
+        out.write(len >>> 24);
+        out.write(len >>> 16);
+        out.write(len >>> 8);
+        out.write(len);
+        out.write(payload, 0, len);
+    }
+
+    @Test
+    public void testFrames() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeFrame(out, 1, "first line\n".getBytes(StandardCharsets.UTF_8));
+        byte[] big = new byte[100_000];
+        Arrays.fill(big, (byte) 'x');
+        writeFrame(out, 2, big);
+        writeFrame(out, 1, "last line\n".getBytes(StandardCharsets.UTF_8));
+        try (FrameReader reader = new FrameReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertTrue(reader.next());
+            assertEquals(StreamType.STDOUT, reader.getStreamType());
+            assertEquals("first line", reader.getMessage());
+
+            Frame frame = reader.readFrame();
+            assertEquals(StreamType.STDERR, frame.getStreamType());
+            assertArrayEquals(big, frame.getPayload());
+
+            assertTrue(reader.next());
+            assertEquals("last line", reader.getMessage());
+            assertFalse(reader.next());
+            assertNull(reader.readFrame());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeFrame(out, 1, "some text".getBytes(StandardCharsets.UTF_8));
+        byte[] data = Arrays.copyOf(out.toByteArray(), out.size() - 2);
+        try (FrameReader reader = new FrameReader(new ByteArrayInputStream(data))) {
+            reader.next();
+        }
+    }
+}
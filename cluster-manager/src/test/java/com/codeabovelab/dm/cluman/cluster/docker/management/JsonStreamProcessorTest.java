@@ -0,0 +1,49 @@
+package com.codeabovelab.dm.cluman.cluster.docker.management;
+
+import com.codeabovelab.dm.cluman.cluster.docker.model.DockerEvent;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonStreamProcessorTest {
+
+    @Test
+    public void testSkipEmptyAndMalformed() {
+        String json = "{\"status\":\"start\",\"id\":\"first\",\"time\":1}\n" +
+          "{}\n" +
+          "{\"status\":\"stop\",\"id\":\"malformed\",\"time\":\"not a number\",\"Actor\":{\"ID\":\"x\"}}\n" +
+          "{\"status\":\"die\",\"id\":\"second\",\"time\":2}\n";
+        JsonStreamProcessor<DockerEvent> processor = new JsonStreamProcessor<>(DockerEvent.class);
+        List<DockerEvent> events = new ArrayList<>();
+        processor.processResponseStream(new StreamContext<>(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), events::add));
+        assertEquals(2, events.size());
+        assertEquals("first", events.get(0).getId());
+        assertEquals(1L, events.get(0).getTime());
+        assertEquals("second", events.get(1).getId());
+        assertEquals(1, processor.getMalformedCount());
+        // count is accumulated over streams
+        processor.processResponseStream(new StreamContext<>(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), events::add));
+        assertEquals(2, processor.getMalformedCount());
+    }
+
+    @Test
+    public void testWatcherErrorDoesNotBreakStream() {
+        String json = "{\"status\":\"start\",\"id\":\"first\",\"time\":1}\n" +
+          "{\"status\":\"die\",\"id\":\"second\",\"time\":2}\n";
+        JsonStreamProcessor<DockerEvent> processor = new JsonStreamProcessor<>(DockerEvent.class);
+        List<DockerEvent> events = new ArrayList<>();
+        processor.processResponseStream(new StreamContext<>(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), e -> {
+            events.add(e);
+            if("first".equals(e.getId())) {
+                throw new IllegalStateException("Test");
+            }
+        }));
+        assertEquals(2, events.size());
+        assertEquals("second", events.get(1).getId());
+    }
+}
@@ -0,0 +1,83 @@
+package com.codeabovelab.dm.cluman.cluster.registry;
+
+import com.codeabovelab.dm.cluman.cluster.registry.data.SearchResult;
+import com.codeabovelab.dm.cluman.cluster.registry.model.HubRegistryConfig;
+import com.codeabovelab.dm.cluman.cluster.registry.model.PrivateRegistryConfig;
+import com.codeabovelab.dm.cluman.cluster.registry.model.RegistryConfig;
+import com.codeabovelab.dm.common.kv.KeyValueStorage;
+import com.codeabovelab.dm.common.kv.mapping.KvClassMapper;
+import com.codeabovelab.dm.common.kv.mapping.KvMapperFactory;
+import com.codeabovelab.dm.common.mb.MessageBus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RegistryRepositorySearchTest {
+
+    private static final long DELAY = 100;
+
+    private RegistryRepository repository;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        KvMapperFactory kvmf = mock(KvMapperFactory.class);
+        KeyValueStorage storage = mock(KeyValueStorage.class);
+        when(storage.getDockMasterPrefix()).thenReturn("/test");
+        when(kvmf.getStorage()).thenReturn(storage);
+        when(kvmf.createClassMapper(anyString(), any(Class.class))).thenReturn(mock(KvClassMapper.class));
+
+        HubRegistryConfig hubConfig = new HubRegistryConfig();
+        hubConfig.setName("hub");
+        DockerHubRegistry hub = mock(DockerHubRegistry.class);
+        mockService(hub, hubConfig, "hub-image", 0);
+
+        repository = new RegistryRepository(kvmf, hub, mock(RegistryFactory.class), mock(MessageBus.class));
+        repository.setQueryTimeout(1000);
+        for (int i = 0; i < 4; i++) {
+            repository.register(createService("registry" + i, "image" + i, DELAY));
+        }
+        repository.register(createService("slow", "slow-image", 10_000));
+    }
+
+    private static RegistryService createService(String name, String image, long delay) {
+        PrivateRegistryConfig config = new PrivateRegistryConfig();
+        config.setName(name);
+        RegistryService service = mock(RegistryService.class);
+        mockService(service, config, image, delay);
+        return service;
+    }
+
+    private static void mockService(RegistryService service, RegistryConfig config, String image, long delay) {
+        when(service.getConfig()).thenReturn(config);
+        when(service.search(anyString(), anyInt(), anyInt())).then(i -> {
+            Thread.sleep(delay);
+            SearchResult.Result result = new SearchResult.Result();
+            result.setName(image);
+            result.getRegistries().add(config.getName());
+            SearchResult sr = new SearchResult();
+            sr.setNumPages(1);
+            sr.setResults(Collections.singletonList(result));
+            return sr;
+        });
+    }
+
+    @Test
+    public void testSearch() {
+        SearchResult result = repository.search("image", 0, 10);
+        // slow registry does not answer in query timeout, so it is skipped
+        List<String> names = result.getResults().stream().map(SearchResult.Result::getName).collect(Collectors.toList());
+        assertEquals(Arrays.asList("image0", "image1", "image2", "image3", "hub-image"), names);
+    }
+}
@@ -3,9 +3,15 @@ package com.codeabovelab.dm.cluman.configs.container;
 import com.codeabovelab.dm.cluman.cluster.docker.model.ContainerConfig;
 import com.codeabovelab.dm.cluman.cluster.docker.model.Image;
 import com.codeabovelab.dm.cluman.model.ContainerSource;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -13,6 +19,9 @@ import java.util.List;
 
 public class ConfigsFetcherGitTest {
 
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     @Test
     public void testResolveProperties() throws Exception {
 
@@ -31,6 +40,47 @@ public class ConfigsFetcherGitTest {
 
     }
 
+    @Test
+    public void testSnapshot() throws Exception {
+        File work = tmp.newFolder("work");
+        File bare = tmp.newFolder("bare.git");
+        File config = new File(work, "dev/app.properties");
+        try (Git workGit = Git.init().setDirectory(work).call()) {
+            FileUtils.write(config, "environment.VERSION=one\n", StandardCharsets.UTF_8);
+            workGit.add().addFilepattern(".").call();
+            workGit.commit().setMessage("first").call();
+            Git.cloneRepository().setBare(true).setURI(work.toURI().toString()).setDirectory(bare).call().close();
+
+            GitSettings gitSettings = new GitSettings();
+            gitSettings.setUrl(bare.toURI().toString());
+            gitSettings.setUsername("user");
+            gitSettings.setPassword("password");
+            ConfigsFetcherGit fetcher = new ConfigsFetcherGit(gitSettings, Collections.singletonList(new PropertiesParser()));
+            Assert.assertEquals(Collections.singletonList("VERSION=one"), resolveEnv(fetcher));
+
+            FileUtils.write(config, "environment.VERSION=two\n", StandardCharsets.UTF_8);
+            workGit.commit().setAll(true).setMessage("second").call();
+            workGit.push().setRemote(bare.toURI().toString()).add("master").call();
+            // snapshot is not changed until refresh
+            Assert.assertEquals(Collections.singletonList("VERSION=one"), resolveEnv(fetcher));
+            fetcher.refresh();
+            Assert.assertEquals(Collections.singletonList("VERSION=two"), resolveEnv(fetcher));
+        }
+    }
+
+    private static List<String> resolveEnv(ConfigsFetcherGit fetcher) {
+        ContainerCreationContext context = ContainerCreationContext.builder()
+          .cluster("dev")
+          .imageName("app:1.0")
+          .build();
+        fetcher.resolveProperties(context);
+        List<String> env = new ArrayList<>();
+        for (ContainerSource cs : context.getArgList()) {
+            env.addAll(cs.getEnvironment());
+        }
+        return env;
+    }
+
     public static ConfigProvider createConfigProvider() throws Exception {
         GitSettings gitSettings = new GitSettings();
         gitSettings.setUrl("https://bitbucket.org/codeabovelab/containers-configuration.git");
@@ -0,0 +1,177 @@
+package com.codeabovelab.dm.cluman.ds.container;
+
+import com.codeabovelab.dm.cluman.DockerServiceMock;
+import com.codeabovelab.dm.cluman.cluster.docker.ClusterConfig;
+import com.codeabovelab.dm.cluman.cluster.docker.ClusterConfigImpl;
+import com.codeabovelab.dm.cluman.cluster.docker.management.argument.GetContainersArg;
+import com.codeabovelab.dm.cluman.cluster.docker.management.result.ResultCode;
+import com.codeabovelab.dm.cluman.cluster.docker.management.result.ServiceCallResult;
+import com.codeabovelab.dm.cluman.cluster.docker.model.ContainerDetails;
+import com.codeabovelab.dm.cluman.cluster.docker.model.CreateContainerCmd;
+import com.codeabovelab.dm.cluman.cluster.docker.model.CreateContainerResponse;
+import com.codeabovelab.dm.cluman.cluster.docker.model.HostConfig;
+import com.codeabovelab.dm.cluman.cluster.docker.model.Node;
+import com.codeabovelab.dm.cluman.configs.container.ConfigProvider;
+import com.codeabovelab.dm.cluman.ds.swarm.NetworkManager;
+import com.codeabovelab.dm.cluman.model.DiscoveryStorage;
+import com.codeabovelab.dm.cluman.model.DockerContainer;
+import com.codeabovelab.dm.cluman.model.DockerLogEvent;
+import com.codeabovelab.dm.cluman.model.DockerServiceInfo;
+import com.codeabovelab.dm.cluman.model.NodeInfoImpl;
+import com.codeabovelab.dm.cluman.model.NodeRegistry;
+import com.codeabovelab.dm.cluman.source.ContainerSourceFactory;
+import com.codeabovelab.dm.common.mb.MessageBuses;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ContainerManagerTest {
+
+    private static final String CLUSTER = "testcluster";
+    private static final String IMAGE = "testimage:1";
+
+    private static final List<String> NODES = Arrays.asList("node1", "node2", "node3");
+
+    /**
+     * Mock which place container on node preferred by constraint, and has limited count of instances per node.
+     */
+    private static class PlacingDockerServiceMock extends DockerServiceMock {
+
+        private static final String PREFERRED = "constraint:node==~";
+        private final ClusterConfig clusterConfig = ClusterConfigImpl.builder().maxCountOfInstances(2).build();
+        private final Map<String, String> nodes = new ConcurrentHashMap<>();
+
+        PlacingDockerServiceMock() {
+            super(DockerServiceInfo.builder()
+              .name(CLUSTER)
+              .nodeList(NODES.stream().map(n -> NodeInfoImpl.builder().name(n).build()).collect(Collectors.toList()))
+              .build());
+        }
+
+        @Override
+        public ClusterConfig getClusterConfig() {
+            return clusterConfig;
+        }
+
+        @Override
+        public CreateContainerResponse createContainer(CreateContainerCmd cmd) {
+            CreateContainerResponse resp = super.createContainer(cmd);
+            if (resp.getCode() == ResultCode.OK && cmd.getEnv() != null) {
+                for (String e : cmd.getEnv()) {
+                    if (e.startsWith(PREFERRED)) {
+                        nodes.put(resp.getId(), e.substring(PREFERRED.length()));
+                    }
+                }
+            }
+            return resp;
+        }
+
+        @Override
+        public ContainerDetails getContainer(String id) {
+            ContainerDetails cd = super.getContainer(id);
+            String node = nodes.get(id);
+            if (cd != null && node != null) {
+                cd.setNode(new Node(node, 1, node, node, node, 1024, new HashMap<>()));
+            }
+            return cd;
+        }
+    }
+
+    private DockerServiceMock docker;
+    private ContainerStorage contStorage;
+    private ContainerManager containerManager;
+
+    @Before
+    public void before() {
+        init(new DockerServiceMock(DockerServiceInfo.builder()
+          .name(CLUSTER)
+          .build()));
+    }
+
+    private void init(DockerServiceMock docker) {
+        this.docker = docker;
+        DiscoveryStorage discoveryStorage = mock(DiscoveryStorage.class);
+        when(discoveryStorage.getService(CLUSTER)).thenReturn(docker);
+
+        ConfigProvider confProv = mock(ConfigProvider.class);
+        when(confProv.resolveProperties(anyString(), anyObject(), anyString(), anyObject()))
+          .then((i) -> i.getArgumentAt(3, Object.class));
+
+        contStorage = mock(ContainerStorage.class);
+        when(contStorage.getOrCreateContainer(anyObject(), anyString())).thenReturn(mock(ContainerRegistration.class));
+
+        containerManager = new ContainerManager(discoveryStorage,
+          mock(NodeRegistry.class),
+          confProv,
+          new ContainersNameService(new ContainerNamesSupplier(() -> docker),
+            MessageBuses.create(DockerLogEvent.BUS, DockerLogEvent.class)),
+          contStorage,
+          mock(NetworkManager.class),
+          new ContainerSourceFactory(new ObjectMapper())
+        );
+    }
+
+    private String addContainer(String name) {
+        CreateContainerCmd cc = new CreateContainerCmd();
+        cc.setName(name);
+        cc.setImage(IMAGE);
+        cc.setLabels(new HashMap<>());
+        HostConfig.Builder hc = HostConfig.newHostConfig();
+        hc.blkioWeight(1);
+        hc.cpuShares(1);
+        hc.cpuPeriod(1);
+        hc.cpuQuota(1);
+        hc.cpusetCpus("");
+        hc.cpusetMems("");
+        cc.setHostConfig(hc.build());
+        return docker.createContainer(cc).getId();
+    }
+
+    @Test
+    public void testScale() {
+        String id = addContainer("testimage");
+        final int scale = 25;
+        ServiceCallResult res = containerManager.scale(CLUSTER, scale, id);
+        assertEquals(res.getMessage(), ResultCode.OK, res.getCode());
+        List<DockerContainer> containers = docker.getContainers(new GetContainersArg(true));
+        assertEquals(scale + 1, containers.size());
+        Set<String> names = containers.stream().map(DockerContainer::getName).collect(Collectors.toSet());
+        assertEquals(scale + 1, names.size());
+    }
+
+    @Test
+    public void testScaleWithMaxCountOfInstances() {
+        init(new PlacingDockerServiceMock());
+        ContainerRegistration existing = mock(ContainerRegistration.class);
+        when(existing.getNode()).thenReturn("node1");
+        when(contStorage.getContainersByImage(IMAGE)).thenReturn(Collections.singletonList(existing));
+        when(contStorage.getContainersByNode(anyString())).thenReturn(Collections.singletonList(existing));
+        String id = addContainer("testimage");
+
+        // 3 nodes with 2 instances on each, and one instance exists
+        ServiceCallResult res = containerManager.scale(CLUSTER, 5, id);
+        assertEquals(res.getMessage(), ResultCode.OK, res.getCode());
+        Map<String, Integer> perNode = new HashMap<>();
+        perNode.put("node1", 1);
+        for (DockerContainer dc : docker.getContainers(new GetContainersArg(true))) {
+            if (dc.getId().equals(id)) {
+                continue;
+            }
+            Node node = docker.getContainer(dc.getId()).getNode();
+            perNode.merge(node.getName(), 1, Integer::sum);
+        }
+        Map<String, Integer> expected = new HashMap<>();
+        NODES.forEach(n -> expected.put(n, 2));
+        assertEquals(expected, perNode);
+    }
+}
@@ -0,0 +1,88 @@
+package com.codeabovelab.dm.cluman.ds.container;
+
+import com.codeabovelab.dm.cluman.ds.swarm.DockerServicesConfig;
+import com.codeabovelab.dm.cluman.model.ContainerBase;
+import com.codeabovelab.dm.common.kv.KeyValueStorage;
+import com.codeabovelab.dm.common.kv.mapping.KvMapper;
+import com.codeabovelab.dm.common.kv.mapping.KvMapperFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ContainerStorageImplTest {
+
+    private ContainerStorageImpl storage;
+
+    @Before
+    public void before() {
+        KvMapperFactory kvmf = mock(KvMapperFactory.class);
+        KeyValueStorage kvs = mock(KeyValueStorage.class);
+        when(kvs.getDockMasterPrefix()).thenReturn("/test");
+        when(kvmf.getStorage()).thenReturn(kvs);
+        when(kvmf.createMapper(any(), anyString())).thenReturn(mock(KvMapper.class));
+        storage = new ContainerStorageImpl(mock(DockerServicesConfig.class), kvmf);
+    }
+
+    private ContainerRegistration register(String id, String name, String image, String node) {
+        ContainerBase.Builder cb = ContainerBase.builder();
+        cb.setId(id);
+        cb.setName(name);
+        cb.setImage(image);
+        return storage.getOrCreateContainer(cb, node);
+    }
+
+    @Test
+    public void testIndexes() {
+        register("abc123", "first", "nginx", "node1");
+        register("abd456", "second", "nginx", "node2");
+        register("bcd789", "third", "redis", "node1");
+
+        assertEquals(2, storage.getContainersByNode("node1").size());
+        assertEquals(Collections.singleton("abd456"), storage.getContainersIdsByNode("node2"));
+        assertTrue(storage.getContainersByNode("node3").isEmpty());
+        assertEquals(2, storage.getContainersByImage("nginx").size());
+        assertEquals("bcd789", storage.findContainer("bcd789").getId());
+        assertEquals("abd456", storage.findContainer("second").getId());
+        assertEquals("abd456", storage.findContainer("abd").getId());
+        assertEquals("bcd789", storage.findContainer("b").getId());
+        assertNull(storage.findContainer("abe"));
+
+        storage.removeNodeContainers("node1");
+        assertTrue(storage.getContainersByNode("node1").isEmpty());
+        assertEquals(1, storage.getContainersByImage("nginx").size());
+        assertTrue(storage.getContainersByImage("redis").isEmpty());
+        assertNull(storage.findContainer("first"));
+        assertNull(storage.findContainer("bcd"));
+        assertEquals(1, storage.getContainers().size());
+    }
+
+    @Test
+    public void testUpdateContainer() {
+        ContainerBase.Builder cb = ContainerBase.builder();
+        cb.setId("abc123");
+        cb.setName("first");
+        cb.setImage("nginx:1");
+        assertTrue(storage.updateContainer(cb, "node1"));
+        assertFalse(storage.updateContainer(cb, "node1"));
+
+        cb.setImage("nginx:2");
+        assertTrue(storage.updateContainer(cb, "node2"));
+        assertEquals("nginx:2", storage.getContainer("abc123").getContainer().getImage());
+        assertTrue(storage.getContainersByNode("node1").isEmpty());
+        assertEquals(1, storage.getContainersByNode("node2").size());
+        assertTrue(storage.getContainersByImage("nginx:1").isEmpty());
+        assertEquals(1, storage.getContainersByImage("nginx:2").size());
+
+        cb.getLabels().put("key", "value");
+        assertTrue(storage.updateContainer(cb, "node2"));
+        assertEquals("value", storage.getContainer("abc123").getContainer().getLabels().get("key"));
+        assertFalse(storage.updateContainer(cb, "node2"));
+    }
+}
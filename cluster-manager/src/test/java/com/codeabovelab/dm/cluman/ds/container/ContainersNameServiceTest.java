@@ -0,0 +1,128 @@
+package com.codeabovelab.dm.cluman.ds.container;
+
+import com.codeabovelab.dm.cluman.DockerServiceMock;
+import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
+import com.codeabovelab.dm.cluman.cluster.docker.management.argument.CalcNameArg;
+import com.codeabovelab.dm.cluman.cluster.docker.model.EventType;
+import com.codeabovelab.dm.cluman.model.ContainerBase;
+import com.codeabovelab.dm.cluman.model.DockerLogEvent;
+import com.codeabovelab.dm.cluman.model.DockerServiceInfo;
+import com.codeabovelab.dm.cluman.model.StandardActions;
+import com.codeabovelab.dm.common.mb.MessageBus;
+import com.codeabovelab.dm.common.mb.MessageBuses;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContainersNameServiceTest {
+
+    private static final String CLUSTER = "testcluster";
+
+    private final AtomicInteger listings = new AtomicInteger();
+    private final List<String> names = new CopyOnWriteArrayList<>(Arrays.asList("app", "app-3", "other-7"));
+    private MessageBus<DockerLogEvent> bus;
+    private DockerService docker;
+    private ContainersNameService service;
+
+    @Before
+    public void before() {
+        docker = new DockerServiceMock(DockerServiceInfo.builder()
+          .name(CLUSTER)
+          .build());
+        bus = MessageBuses.create(DockerLogEvent.BUS, DockerLogEvent.class);
+        service = new ContainersNameService((ds) -> {
+            listings.incrementAndGet();
+            return names;
+        }, bus);
+    }
+
+    private String name(boolean allocate) {
+        return name(allocate, docker);
+    }
+
+    private String name(boolean allocate, DockerService docker) {
+        return service.calculateName(CalcNameArg.builder()
+          .allocate(allocate)
+          .imageName("app:1")
+          .dockerService(docker)
+          .build());
+    }
+
+    @Test
+    public void testCalculateName() {
+        assertEquals("app-4", name(false));
+        assertEquals("app-4", name(true));
+        assertEquals("app-5", name(true));
+        assertEquals("app-6", name(false));
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    public void testConcurrentAllocation() throws Exception {
+        final int count = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(() -> name(true)));
+            }
+            Set<String> names = new HashSet<>();
+            for (Future<String> future : futures) {
+                names.add(future.get());
+            }
+            assertEquals(count, names.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    public void testEvents() {
+        assertEquals("app-4", name(true));
+        DockerLogEvent.Builder b = DockerLogEvent.builder();
+        b.setAction(StandardActions.CREATE);
+        b.setType(EventType.CONTAINER);
+        b.setCluster(CLUSTER);
+        ContainerBase.Builder cb = ContainerBase.builder();
+        cb.setId("id");
+        cb.setName("/app-10");
+        b.setContainer(cb.build());
+        bus.accept(b.build());
+        assertEquals("app-11", name(true));
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    public void testRefresh() {
+        assertEquals("app-4", name(true));
+        // container created without events
+        names.add("app-9");
+        assertEquals("app-5", name(true));
+        service.refresh("app:1", docker);
+        assertEquals("app-10", name(true));
+    }
+
+    @Test
+    public void testSharedBetweenServices() {
+        DockerService other = new DockerServiceMock(DockerServiceInfo.builder()
+          .name("othercluster")
+          .build());
+        Set<String> allocated = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            allocated.add(name(true));
+            allocated.add(name(true, other));
+        }
+        assertEquals(10, allocated.size());
+        // each service is listed once
+        assertEquals(2, listings.get());
+    }
+}
@@ -1,5 +1,6 @@
 package com.codeabovelab.dm.cluman.ds.kv.etcd;
 
+import com.codeabovelab.dm.common.kv.DeleteDirOptions;
 import com.codeabovelab.dm.common.kv.KeyValueStorage;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -11,6 +12,9 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.util.Collections;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -36,6 +40,21 @@ public class EtcdClientWrapperTest {
 
     }
 
+    @Test
+    @Ignore
+    public void testMapWithNestedDir() throws Exception {
+        final String dir = "/testMapWithNestedDir";
+        try {
+            etcdClientWrapper.set(dir + "/name", "val");
+            etcdClientWrapper.set(dir + "/nested/child", "childVal");
+            Map<String, String> map = etcdClientWrapper.map(dir);
+            // nested directory is skipped
+            assertEquals(Collections.singletonMap(dir + "/name", "val"), map);
+        } finally {
+            etcdClientWrapper.deletedir(dir, DeleteDirOptions.builder().recursive(true).build());
+        }
+    }
+
     @Configuration
     @EnableAutoConfiguration
     @Import(EtcdConfiguration.class)
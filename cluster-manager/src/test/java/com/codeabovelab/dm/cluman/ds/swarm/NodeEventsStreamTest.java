@@ -0,0 +1,52 @@
+package com.codeabovelab.dm.cluman.ds.swarm;
+
+import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
+import com.codeabovelab.dm.cluman.cluster.docker.management.argument.GetEventsArg;
+import com.codeabovelab.dm.cluman.cluster.docker.management.result.ResultCode;
+import com.codeabovelab.dm.cluman.cluster.docker.management.result.ServiceCallResult;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class NodeEventsStreamTest {
+
+    @Test
+    public void testIdleStreamIsReconnected() throws Exception {
+        BlockingQueue<GetEventsArg> subscriptions = new LinkedBlockingQueue<>();
+        DockerService service = mock(DockerService.class);
+        // like a half-open connection, subscription is blocked until interruption
+        when(service.subscribeToEvents(any(GetEventsArg.class))).then(invocation -> {
+            GetEventsArg arg = (GetEventsArg) invocation.getArguments()[0];
+            subscriptions.add(arg);
+            arg.getInterrupter().get();
+            return new ServiceCallResult().code(ResultCode.OK);
+        });
+        NodeEventsStream stream = new NodeEventsStream("node", () -> service, e -> {}, 10, 100);
+        Thread thread = new Thread(stream);
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            GetEventsArg first = subscriptions.poll(5, TimeUnit.SECONDS);
+            assertNotNull(first);
+            // stream is not interrupted before timeout
+            stream.checkIdle();
+            assertFalse(first.getInterrupter().isDone());
+            Thread.sleep(150);
+            stream.checkIdle();
+            assertTrue(first.getInterrupter().isDone());
+            GetEventsArg second = subscriptions.poll(5, TimeUnit.SECONDS);
+            assertNotNull("Stream is not reconnected", second);
+            assertNotSame(first, second);
+        } finally {
+            stream.close();
+            thread.join(5000);
+        }
+        assertFalse(thread.isAlive());
+    }
+}
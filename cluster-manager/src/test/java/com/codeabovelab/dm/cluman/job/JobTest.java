@@ -1,6 +1,7 @@
 package com.codeabovelab.dm.cluman.job;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,12 +15,12 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
-import org.hamcrest.Matchers;
 
 /**
  */
@@ -149,6 +150,29 @@ public class JobTest {
         assertEquals("Conflicts", 0, ConcurrentScheduleJob.getConflicts());
     }
 
+    @Test
+    public void testGetJob() {
+        final String jobName = "unnecessaryJobBean";
+        // jobs are not started and stay in manager of shared context, so we do not create many of them
+        final int count = 50;
+        List<JobInstance> jobs = new ArrayList<>(count);
+        Set<String> ids = new HashSet<>();
+        for(int i = 0; i < count; ++i) {
+            JobInstance ji = jobsManager.create(JobParameters.builder()
+              .type(jobName)
+              .parameter("getJob#", i)
+              .build());
+            jobs.add(ji);
+            ids.add(ji.getInfo().getId());
+        }
+        assertEquals("Ids must be unique", count, ids.size());
+        for(JobInstance ji: jobs) {
+            String id = ji.getInfo().getId();
+            assertSame(id, ji, jobsManager.getJob(id));
+        }
+        assertNull(jobsManager.getJob("nonexistent-job"));
+    }
+
     @Test
     public void testWatcher() throws Exception {
         final String jobName = "failingJob";
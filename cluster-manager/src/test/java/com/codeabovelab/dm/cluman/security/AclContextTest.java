@@ -0,0 +1,87 @@
+package com.codeabovelab.dm.cluman.security;
+
+import com.codeabovelab.dm.common.security.SecurityUtils;
+import com.codeabovelab.dm.common.security.TenantPrincipalSid;
+import com.codeabovelab.dm.common.security.acl.AclSource;
+import com.codeabovelab.dm.common.security.acl.ExtPermissionGrantingStrategy;
+import com.codeabovelab.dm.common.security.dto.PermissionData;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.acls.model.ObjectIdentity;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AclContextTest {
+
+    private static final String FIRST = "0000000000000000000000000000000000000000000000000000000000000001";
+    private static final String SECOND = "0000000000000000000000000000000000000000000000000000000000000002";
+    private static final String MISSING = "0000000000000000000000000000000000000000000000000000000000000003";
+
+    private final AtomicInteger single = new AtomicInteger();
+    private final AtomicInteger bulk = new AtomicInteger();
+    private AclContext context;
+
+    @Before
+    public void before() {
+        Set<String> existing = new HashSet<>(Arrays.asList(FIRST, SECOND));
+        ExtPermissionGrantingStrategy pgs = mock(ExtPermissionGrantingStrategy.class);
+        when(pgs.getPermission(any(), any())).thenReturn(PermissionData.ALL);
+        ProvidersAclService aclService = new ProvidersAclService(pgs);
+        aclService.getProviders().put(SecuredType.CONTAINER.name(), new AclProvider() {
+            @Override
+            public AclSource provide(Serializable id) {
+                single.incrementAndGet();
+                return existing.contains(id) ? makeAcl((String) id) : null;
+            }
+
+            @Override
+            public void provideAll(Collection<? extends Serializable> ids, BiConsumer<Serializable, AclSource> consumer) {
+                bulk.incrementAndGet();
+                for(Serializable id: ids) {
+                    if(existing.contains(id)) {
+                        consumer.accept(id, makeAcl((String) id));
+                    }
+                }
+            }
+
+            @Override
+            public void update(Serializable id, AclModifier operator) {
+            }
+
+            @Override
+            public void list(Consumer<AclSource> consumer) {
+            }
+        });
+        context = new AclContext(aclService, pgs, Collections.emptyList());
+    }
+
+    private static AclSource makeAcl(String id) {
+        return AclSource.builder()
+          .objectIdentity(SecuredType.CONTAINER.id(id))
+          .owner(TenantPrincipalSid.from(SecurityUtils.USER_SYSTEM))
+          .build();
+    }
+
+    @Test
+    public void testPrefetchWithMissing() {
+        List<ObjectIdentity> oids = Arrays.asList(SecuredType.CONTAINER.id(FIRST),
+          SecuredType.CONTAINER.id(SECOND),
+          SecuredType.CONTAINER.id(MISSING));
+        context.prefetch(oids);
+        assertEquals(1, bulk.get());
+        assertEquals(PermissionData.ALL, context.getPermission(oids.get(0)));
+        assertEquals(PermissionData.ALL, context.getPermission(oids.get(1)));
+        // missing object is cached as absent
+        assertEquals(PermissionData.NONE, context.getPermission(oids.get(2)));
+        assertEquals(0, single.get());
+    }
+}
@@ -124,4 +124,12 @@ public class FilterApiTest {
         assertEquals(nodeInfos4.size(), 3);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testInvalidCriteria() throws Exception {
+        UISearchQuery uiSearchQuery = new UISearchQuery("health.sysCpuLoad <", null, 10, 0);
+        Collection<NodeInfo> nodeInfos = filterApi.listNodes(nodeStorage, uiSearchQuery);
+        assertNotNull(nodeInfos);
+        assertTrue(nodeInfos.isEmpty());
+    }
+
+}
@@ -0,0 +1,261 @@
+package com.codeabovelab.dm.cluman.ui.health;
+
+import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
+import com.codeabovelab.dm.cluman.cluster.docker.management.argument.GetContainersArg;
+import com.codeabovelab.dm.cluman.cluster.docker.model.ContainerDetails;
+import com.codeabovelab.dm.cluman.cluster.docker.model.NetworkSettings;
+import com.codeabovelab.dm.cluman.cluster.docker.model.Port;
+import com.codeabovelab.dm.cluman.cluster.docker.model.ProtocolType;
+import com.codeabovelab.dm.cluman.ds.DockerServiceRegistry;
+import com.codeabovelab.dm.cluman.ds.container.ContainerRegistration;
+import com.codeabovelab.dm.cluman.ds.container.ContainerStorage;
+import com.codeabovelab.dm.cluman.model.ContainerBase;
+import com.codeabovelab.dm.cluman.model.DockerContainer;
+import com.codeabovelab.dm.cluman.model.NodeInfoProvider;
+import com.codeabovelab.dm.cluman.model.NodeRegistry;
+import com.codeabovelab.dm.common.healthcheck.ServiceHealthCheckResult;
+import com.codeabovelab.dm.common.mb.MessageBus;
+import com.codeabovelab.dm.common.mb.MessageBuses;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class HealthCheckServiceTest {
+
+    private static final String NODE = "node1";
+    private static final long INTERVAL = 1000L;
+
+    private ContainerStorage containerStorage;
+    private NodeRegistry nodeRegistry;
+    private DockerService dockerService;
+    private ScheduledExecutorService scheduler;
+    private MessageBus<ContainerHealthEvent> bus;
+    private List<ContainerHealthEvent> events;
+    private HealthCheckService service;
+
+    @Before
+    public void before() {
+        containerStorage = mock(ContainerStorage.class);
+        nodeRegistry = mock(NodeRegistry.class);
+        dockerService = mock(DockerService.class);
+        when(nodeRegistry.getNodeService(NODE)).thenReturn(dockerService);
+        scheduler = mock(ScheduledExecutorService.class);
+        bus = MessageBuses.create(ContainerHealthEvent.BUS, ContainerHealthEvent.class);
+        events = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(events::add);
+        service = new HealthCheckService(mock(DockerServiceRegistry.class), nodeRegistry, mock(NodeInfoProvider.class),
+          containerStorage, bus, scheduler, MoreExecutors.newDirectExecutorService(), INTERVAL, 1000L);
+    }
+
+    @After
+    public void after() throws Exception {
+        service.destroy();
+        bus.close();
+    }
+
+    private ContainerRegistration register(String id, Map<String, String> labels) {
+        ContainerBase.Builder cb = ContainerBase.builder();
+        cb.setId(id);
+        cb.setName("name-" + id);
+        cb.setLabels(labels);
+        ContainerRegistration cr = mock(ContainerRegistration.class);
+        when(cr.getId()).thenReturn(id);
+        when(cr.getNode()).thenReturn(NODE);
+        when(cr.getContainer()).thenReturn(cb.build());
+        when(containerStorage.getContainer(id)).thenReturn(cr);
+        return cr;
+    }
+
+    private void list(DockerContainer... containers) {
+        when(dockerService.getContainers(any(GetContainersArg.class))).thenReturn(Arrays.asList(containers));
+    }
+
+    private static DockerContainer listed(String id, String status, Port... ports) {
+        return DockerContainer.builder()
+          .id(id)
+          .name("name-" + id)
+          .status(status)
+          .ports(Arrays.asList(ports))
+          .build();
+    }
+
+    private static ContainerDetails details(String id) {
+        ContainerDetails cd = new ContainerDetails();
+        cd.setId(id);
+        NetworkSettings ns = new NetworkSettings();
+        ns.setIpAddress(InetAddress.getLoopbackAddress().getHostAddress());
+        cd.setNetworkSettings(ns);
+        return cd;
+    }
+
+    /**
+     * Run {@link HealthCheckService#refreshProbes()} and return newly scheduled tasks.
+     */
+    private List<Runnable> refresh(ContainerRegistration... crs) {
+        when(containerStorage.getContainers()).thenReturn(Arrays.asList(crs));
+        reset(scheduler);
+        service.refreshProbes();
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, atLeast(0)).schedule(captor.capture(), anyLong(), any(TimeUnit.class));
+        return captor.getAllValues();
+    }
+
+    @Test
+    public void testAddressCacheAndChangeOnlyPublishing() throws Exception {
+        try(ServerSocket ss = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+            String id = "tcp";
+            ContainerRegistration cr = register(id, ImmutableMap.of(
+              HealthProbe.LABEL_TYPE, "tcp",
+              HealthProbe.LABEL_PORT, Integer.toString(ss.getLocalPort())));
+            // port is not published, so probe need ip address of container
+            list(listed(id, "Up 1 minute"));
+            when(dockerService.getContainer(id)).thenReturn(details(id));
+            List<Runnable> tasks = refresh(cr);
+            assertEquals(1, tasks.size());
+            Runnable task = tasks.get(0);
+
+            task.run();
+            task.run();
+            task.run();
+            // address is resolved only once, next probes use labels from storage and cached address
+            verify(dockerService, times(1)).getContainer(id);
+            assertTrue(service.getLastResult(id).isHealthy());
+            assertEquals(NODE, service.getLastResult(id).getNode());
+            // only first result is published, other have same health
+            assertEquals(1, events.size());
+
+            ss.close();
+            task.run();
+            task.run();
+            assertFalse(service.getLastResult(id).isHealthy());
+            // failed probe reset cached address
+            verify(dockerService, times(2)).getContainer(id);
+            assertEquals(2, events.size());
+            assertFalse(events.get(1).isHealthy());
+        }
+    }
+
+    @Test
+    public void testProbeWithHostDoesNotInspect() throws Exception {
+        try(ServerSocket ss = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+            String id = "host";
+            ContainerRegistration cr = register(id, ImmutableMap.of(
+              HealthProbe.LABEL_TYPE, "tcp",
+              HealthProbe.LABEL_HOST, InetAddress.getLoopbackAddress().getHostAddress(),
+              HealthProbe.LABEL_PORT, Integer.toString(ss.getLocalPort())));
+            List<Runnable> tasks = refresh(cr);
+            tasks.get(0).run();
+            assertTrue(service.getLastResult(id).isHealthy());
+            verify(dockerService, never()).getContainer(anyString());
+        }
+    }
+
+    @Test
+    public void testPublishedPortDoesNotInspect() throws Exception {
+        try(ServerSocket ss = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+            String id = "published";
+            ContainerRegistration cr = register(id, ImmutableMap.of(
+              HealthProbe.LABEL_TYPE, "tcp",
+              HealthProbe.LABEL_PORT, "80"));
+            list(listed(id, "Up 1 minute",
+              new Port(InetAddress.getLoopbackAddress().getHostAddress(), 80, ss.getLocalPort(), ProtocolType.TCP)));
+            List<Runnable> tasks = refresh(cr);
+            tasks.get(0).run();
+            assertTrue(service.getLastResult(id).isHealthy());
+            verify(dockerService, never()).getContainer(anyString());
+        }
+    }
+
+    @Test
+    public void testRunningFromNodeListing() throws Exception {
+        ContainerRegistration up = register("up", null);
+        ContainerRegistration exited = register("exited", null);
+        ContainerRegistration absent = register("absent", null);
+        list(listed("up", "Up 1 minute"), listed("exited", "Exited (0) 1 minute ago"));
+        for(Runnable task: refresh(up, exited, absent)) {
+            task.run();
+        }
+        assertTrue(service.getLastResult("up").isHealthy());
+        assertFalse(service.getLastResult("exited").isHealthy());
+        assertFalse(service.getLastResult("absent").isHealthy());
+        // containers of node share one listing, and they are not inspected
+        verify(dockerService, times(1)).getContainers(any(GetContainersArg.class));
+        verify(dockerService, never()).getContainer(anyString());
+    }
+
+    @Test
+    public void testRefreshProbes() throws Exception {
+        ContainerRegistration first = register("first", null);
+        ContainerRegistration second = register("second", null);
+        list();
+
+        List<Runnable> tasks = refresh(first, second);
+        assertEquals(2, tasks.size());
+        // known containers are not scheduled again
+        assertTrue(refresh(first, second).isEmpty());
+
+        for(Runnable task: tasks) {
+            task.run();
+        }
+        assertNotNull(service.getLastResult("first"));
+        assertNotNull(service.getLastResult("second"));
+
+        // second is removed, its probe is cancelled and result is dropped
+        assertTrue(refresh(first).isEmpty());
+        assertNull(service.getLastResult("second"));
+        for(Runnable task: tasks) {
+            task.run();
+        }
+        // only probe of first container is rescheduled
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).schedule(captor.capture(), anyLong(), any(TimeUnit.class));
+        assertNull(service.getLastResult("second"));
+        verify(containerStorage, times(2)).getContainer("first");
+        verify(containerStorage, times(1)).getContainer("second");
+    }
+
+    @Test
+    public void testResultOfCancelledProbeIsDropped() throws Exception {
+        ContainerRegistration first = register("first", null);
+        ContainerRegistration second = register("second", null);
+        List<Runnable> tasks = refresh(first, second);
+        assertEquals(2, tasks.size());
+        list(listed("first", "Up 1 minute"), listed("second", "Exited (1) 1 minute ago"));
+        // container is removed while its probe is running
+        when(containerStorage.getContainers()).thenReturn(Collections.singletonList(first));
+        when(containerStorage.getContainer("second")).then(invocation -> {
+            service.refreshProbes();
+            return second;
+        });
+        for(Runnable task: tasks) {
+            task.run();
+        }
+        assertNotNull(service.getLastResult("first"));
+        assertNull(service.getLastResult("second"));
+        List<ServiceHealthCheckResult> all = new ArrayList<>();
+        service.checkAll(all::add);
+        assertEquals(1, all.size());
+        for(ContainerHealthEvent event: events) {
+            assertEquals("first", event.getContainerId());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.codeabovelab.dm.cluman.ui.health;
+
+import com.codeabovelab.dm.common.healthcheck.HealthCheckResultData;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class HealthProbeTest {
+
+    private static final long TIMEOUT = 2000L;
+
+    /**
+     * Local stub which answer on first http request with specified status.
+     */
+    private static ServerSocket httpStub(int status) throws Exception {
+        ServerSocket ss = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(() -> {
+            try(Socket socket = ss.accept()) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                String line;
+                while((line = reader.readLine()) != null && !line.isEmpty()) {
+                    // skip request headers
+                }
+                OutputStream os = socket.getOutputStream();
+                os.write(("HTTP/1.1 " + status + " Stub\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                os.flush();
+            } catch (Exception e) {
+                // stub is closed
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return ss;
+    }
+
+    private static InetSocketAddress address(ServerSocket ss) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), ss.getLocalPort());
+    }
+
+    @Test
+    public void testFromLabels() {
+        assertEquals(HealthProbe.Type.RUNNING, HealthProbe.fromLabels(null).getType());
+        HealthProbe probe = HealthProbe.fromLabels(ImmutableMap.of(
+          HealthProbe.LABEL_TYPE, "http",
+          HealthProbe.LABEL_PORT, "8080",
+          HealthProbe.LABEL_PATH, "/health",
+          HealthProbe.LABEL_INTERVAL, "10000"));
+        assertEquals(HealthProbe.Type.HTTP, probe.getType());
+        assertEquals(8080, probe.getPort());
+        assertEquals("/health", probe.getPath());
+        assertEquals(10000L, probe.getInterval());
+        assertNull(probe.getHost());
+    }
+
+    @Test
+    public void testTcp() throws Exception {
+        HealthProbe probe = HealthProbe.builder().type(HealthProbe.Type.TCP).build();
+        InetSocketAddress address;
+        try(ServerSocket ss = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            address = address(ss);
+            assertTrue(probe.check(address, TIMEOUT).isHealthy());
+        }
+        HealthCheckResultData res = probe.check(address, TIMEOUT);
+        assertFalse(res.isHealthy());
+        assertNotNull(res.getThrowable());
+    }
+
+    @Test
+    public void testHttp() throws Exception {
+        HealthProbe probe = HealthProbe.builder().type(HealthProbe.Type.HTTP).path("/health").build();
+        try(ServerSocket ss = httpStub(200)) {
+            HealthCheckResultData res = probe.check(address(ss), TIMEOUT);
+            assertTrue(res.isHealthy());
+            assertEquals("HTTP 200", res.getMessage());
+        }
+        try(ServerSocket ss = httpStub(503)) {
+            HealthCheckResultData res = probe.check(address(ss), TIMEOUT);
+            assertFalse(res.isHealthy());
+            assertEquals("HTTP 503", res.getMessage());
+        }
+    }
+}
@@ -3,7 +3,11 @@ package com.codeabovelab.dm.cluman.update;
 import com.codeabovelab.dm.cluman.DockerServiceMock;
 import com.codeabovelab.dm.cluman.cluster.docker.management.DockerService;
 import com.codeabovelab.dm.cluman.cluster.docker.management.argument.GetContainersArg;
+import com.codeabovelab.dm.cluman.cluster.docker.management.argument.StopContainerArg;
+import com.codeabovelab.dm.cluman.cluster.docker.management.result.ServiceCallResult;
+import com.codeabovelab.dm.cluman.cluster.docker.model.ContainerDetails;
 import com.codeabovelab.dm.cluman.cluster.docker.model.CreateContainerCmd;
+import com.codeabovelab.dm.cluman.cluster.docker.model.CreateContainerResponse;
 import com.codeabovelab.dm.cluman.cluster.docker.model.HostConfig;
 import com.codeabovelab.dm.cluman.configs.container.ConfigProvider;
 import com.codeabovelab.dm.cluman.configs.container.DefaultParser;
@@ -13,6 +17,7 @@ import com.codeabovelab.dm.cluman.ds.swarm.NetworkManager;
 import com.codeabovelab.dm.cluman.job.*;
 import com.codeabovelab.dm.cluman.model.DiscoveryStorage;
 import com.codeabovelab.dm.cluman.model.DockerContainer;
+import com.codeabovelab.dm.cluman.model.DockerLogEvent;
 import com.codeabovelab.dm.cluman.model.DockerServiceInfo;
 import com.codeabovelab.dm.cluman.model.NodeRegistry;
 import com.codeabovelab.dm.cluman.batch.BatchUtils;
@@ -23,6 +28,7 @@ import com.codeabovelab.dm.cluman.ui.health.HealthCheckService;
 import com.codeabovelab.dm.cluman.ui.update.UpdateContainersConfiguration;
 import com.codeabovelab.dm.cluman.ui.update.UpdateContainersUtil;
 import com.codeabovelab.dm.common.healthcheck.ServiceHealthCheckResultImpl;
+import com.codeabovelab.dm.common.mb.MessageBuses;
 import com.codeabovelab.dm.common.utils.Consumers;
 import com.codeabovelab.dm.common.utils.Uuids;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -46,9 +52,13 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
@@ -71,6 +81,135 @@ public class UpdateTest {
     static final String TESTCLUSTER = "testcluster";
     static final String IMAGE_ID = "sha256:4355a46b19d348dc2f57c046f8ef63d4538ebb936000f3c9ee954a27460dd865";
 
+    /**
+     * Mock which records peak count of concurrent stop and create calls, and can fail health check of
+     * first container which is checked.
+     */
+    static class TrackingDockerServiceMock extends DockerServiceMock {
+
+        private final Object lock = new Object();
+        private int inFlight;
+        private int peak;
+        private int expectedConcurrency = 1;
+        private boolean failHealthCheck;
+        private String unhealthy;
+        private final Set<String> stopped = new HashSet<>();
+        private int startedAfterFailure;
+
+        TrackingDockerServiceMock(DockerServiceInfo info) {
+            super(info);
+        }
+
+        /**
+         * Calls wait (with timeout) for specified count of concurrent calls, it make overlapping of
+         * concurrent updates independent from thread scheduling.
+         * @param expectedConcurrency count of concurrent calls
+         */
+        void setExpectedConcurrency(int expectedConcurrency) {
+            synchronized (lock) {
+                this.expectedConcurrency = expectedConcurrency;
+            }
+        }
+
+        void setFailHealthCheck(boolean failHealthCheck) {
+            synchronized (lock) {
+                this.failHealthCheck = failHealthCheck;
+            }
+        }
+
+        int getPeakConcurrency() {
+            synchronized (lock) {
+                return peak;
+            }
+        }
+
+        String getUnhealthy() {
+            synchronized (lock) {
+                return unhealthy;
+            }
+        }
+
+        /**
+         * @return names of containers which was stopped
+         */
+        Set<String> getStopped() {
+            synchronized (lock) {
+                return new HashSet<>(stopped);
+            }
+        }
+
+        /**
+         * @return count of containers which processing was started after failure of health check
+         */
+        int getStartedAfterFailure() {
+            synchronized (lock) {
+                return startedAfterFailure;
+            }
+        }
+
+        boolean checkHealth(String id) throws InterruptedException {
+            ContainerDetails cd = getContainer(id);
+            assertNotNull("Unknown container: " + id, cd);
+            synchronized (lock) {
+                if(!failHealthCheck) {
+                    return true;
+                }
+                if(unhealthy == null) {
+                    unhealthy = cd.getName();
+                }
+                if(unhealthy.equals(cd.getName())) {
+                    return false;
+                }
+            }
+            // give time to job for handling of failed container before this one is done
+            Thread.sleep(200L);
+            return true;
+        }
+
+        @Override
+        public ServiceCallResult stopContainer(StopContainerArg arg) {
+            ContainerDetails cd = getContainer(arg.getId());
+            if(cd != null) {
+                synchronized (lock) {
+                    if(stopped.add(cd.getName()) && unhealthy != null) {
+                        startedAfterFailure++;
+                    }
+                }
+            }
+            return track(() -> super.stopContainer(arg));
+        }
+
+        @Override
+        public CreateContainerResponse createContainer(CreateContainerCmd cmd) {
+            return track(() -> super.createContainer(cmd));
+        }
+
+        private <T> T track(Supplier<T> call) {
+            synchronized (lock) {
+                inFlight++;
+                peak = Math.max(peak, inFlight);
+                lock.notifyAll();
+                long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(2);
+                long wait;
+                while(peak < expectedConcurrency && (wait = end - System.currentTimeMillis()) > 0) {
+                    try {
+                        lock.wait(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            try {
+                return call.get();
+            } finally {
+                synchronized (lock) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
     @Import({JobConfiguration.class, UpdateContainersConfiguration.class})
     @Configuration
     @EnableAutoConfiguration(exclude = EndpointWebMvcAutoConfiguration.class)
@@ -84,7 +223,7 @@ public class UpdateTest {
         @Bean
         DiscoveryStorage discoveryStorage() {
             DiscoveryStorage mock = mock(DiscoveryStorage.class);
-            DockerServiceMock ds = new DockerServiceMock(DockerServiceInfo.builder()
+            DockerServiceMock ds = new TrackingDockerServiceMock(DockerServiceInfo.builder()
               .name(TESTCLUSTER)
               .build());
             when(mock.getService(ds.getCluster())).thenReturn(ds);
@@ -110,7 +249,8 @@ public class UpdateTest {
             ContainerManager cm = new ContainerManager(discoveryStorage,
               mock(NodeRegistry.class),
               confProv,
-              new ContainersNameService(new ContainerNamesSupplier(dockerServiceFactory)),
+              new ContainersNameService(new ContainerNamesSupplier(dockerServiceFactory),
+                MessageBuses.create(DockerLogEvent.BUS, DockerLogEvent.class)),
               contStorage,
               mock(NetworkManager.class),
               containerSourceFactory
@@ -119,11 +259,12 @@ public class UpdateTest {
         }
 
         @Bean
-        HealthCheckService healthCheckService() throws InterruptedException {
+        HealthCheckService healthCheckService(DiscoveryStorage discoveryStorage) throws InterruptedException {
             //note that transactional attribute on service will broke mock
             HealthCheckService s = mock(HealthCheckService.class);
-            when(s.checkContainer(anyString(), anyString(), anyLong())).thenReturn(ServiceHealthCheckResultImpl.builder()
-              .healthy(true)
+            TrackingDockerServiceMock ds = (TrackingDockerServiceMock) discoveryStorage.getService(TESTCLUSTER);
+            when(s.checkContainer(anyString(), anyString(), anyLong())).then((i) -> ServiceHealthCheckResultImpl.builder()
+              .healthy(ds.checkHealth(i.getArgumentAt(1, String.class)))
               .build());
 
             return s;
@@ -204,7 +345,59 @@ public class UpdateTest {
         checkContainers(this::checkNames);
     }
 
+    @Test
+    public void testStopThenStartEachBatch() throws Exception {
+        doStrategy("stopThenStartEach", 2);
+        checkContainers(this::checkNames);
+    }
+
+    @Test
+    public void testStartThenStopEachBatch() throws Exception {
+        doStrategy("startThenStopEach", 3);
+        checkContainers(Consumers.nop());
+    }
+
+    @Test
+    public void testStopThenStartAllBatch() throws Exception {
+        doStrategy("stopThenStartAll", 10);
+        checkContainers(this::checkNames);
+    }
+
+    @Test
+    public void testStopThenStartEachBatchRollback() throws Exception {
+        final int batchSize = 2;
+        TrackingDockerServiceMock ds = (TrackingDockerServiceMock) discoveryStorage.getService(TESTCLUSTER);
+        ds.setExpectedConcurrency(batchSize);
+        ds.setFailHealthCheck(true);
+        doStrategy("stopThenStartEach", batchSize, true);
+        assertTrue("Containers is not updated concurrently", ds.getPeakConcurrency() > 1);
+        assertNotNull("Health check is not failed", ds.getUnhealthy());
+        // only containers which was in flight at failure is processed
+        assertEquals(0, ds.getStartedAfterFailure());
+        assertEquals(batchSize, ds.getStopped().size());
+        assertTrue(ds.getStopped().contains(ds.getUnhealthy()));
+        // rollback restore old version of processed containers
+        List<DockerContainer> containers = ds.getContainers(new GetContainersArg(true));
+        for(DockerContainer dc: containers) {
+            checkNames(dc);
+            String image = dc.getImage();
+            if(IMAGE_ID.equals(image)) {
+                continue;
+            }
+            assertEquals(dc.getName(), TESTIMAGE + ":" + SRC_VERSION, image);
+        }
+        assertEquals(names.size(), containers.size());
+    }
+
     private void doStrategy(String strategy) throws Exception {
+        doStrategy(strategy, 1);
+    }
+
+    private void doStrategy(String strategy, int batchSize) throws Exception {
+        doStrategy(strategy, batchSize, false);
+    }
+
+    private void doStrategy(String strategy, int batchSize, boolean rollback) throws Exception {
         JobParameters.Builder b = JobParameters.builder();
         b.type(UpdateContainersUtil.JOB_PREFIX + strategy);
         //b.parameter(LoadContainersOfImageTasklet.JP_PERCENTAGE, percentage);
@@ -212,7 +405,8 @@ public class UpdateTest {
         b.parameter(LoadContainersOfImageTasklet.JP_IMAGE, "*");
         b.parameter(BatchUtils.JP_IMAGE_TARGET_VERSION, TARGET_VERSION);
         b.parameter(HealthCheckContainerTasklet.JP_HEALTH_CHECK_ENABLED, true);
-        //b.parameter(BatchUtils.JP_ROLLBACK_ENABLE, true);
+        b.parameter(BatchUtils.JP_ROLLBACK_ENABLE, rollback);
+        b.parameter(BatchUtils.JP_BATCH_SIZE, batchSize);
         b.parameter("id", Uuids.liteRandom());
         JobParameters params = b.build();
         JobInstance jobInstance = jobsManager.create(params);
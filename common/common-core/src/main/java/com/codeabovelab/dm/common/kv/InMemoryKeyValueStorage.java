@@ -52,6 +52,11 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
         root.set(key, value);
     }
 
+    @Override
+    public void setAll(Map<String, String> values, WriteOptions ops) {
+        values.forEach(root::set);
+    }
+
     @Override
     public void setdir(String key, WriteOptions ops) {
         root.setdir(key, ops);
@@ -74,7 +79,15 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
 
     @Override
     public Map<String, String> map(String key) {
-        return root.map(key);
+        Map<String, String> names = root.map(key);
+        if(names == null) {
+            return null;
+        }
+        // like other storages, we return full keys
+        String dir = key.endsWith("/") ? key : key + "/";
+        Map<String, String> map = new HashMap<>();
+        names.forEach((name, value) -> map.put(dir + name, value));
+        return map;
     }
 
     @SuppressWarnings("unchecked")
@@ -48,6 +48,17 @@ public interface KeyValueStorage {
      */
     void set(String key, String value, WriteOptions ops);
 
+    /**
+     * Setting values of many keys. Implementation must do it in minimal count of round trips
+     * (in one transaction if storage support it). Default implementation simply call
+     * {@link #set(String, String, WriteOptions)} for each key.
+     * @param values map of keys and its values
+     * @param ops ops or null, applied to each key
+     */
+    default void setAll(Map<String, String> values, WriteOptions ops) {
+        values.forEach((key, value) -> set(key, value, ops));
+    }
+
     /**
      * Make or update directory at specified key.
      * @param key
@@ -81,9 +92,9 @@ public interface KeyValueStorage {
     List<String> list(String key);
 
     /**
-     * Retrieve map of keys and its values from specified prefix.
+     * Retrieve map of keys and its values from specified prefix. It read all values by one round trip.
      * @param key
-     * @return map or null if key is absent
+     * @return map of full keys (without trailing slash) and its values, or null if key is absent
      */
     Map<String, String> map(String key);
 
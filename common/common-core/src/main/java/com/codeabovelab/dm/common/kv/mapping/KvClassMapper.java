@@ -31,6 +31,7 @@ import org.springframework.util.CollectionUtils;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -65,15 +66,15 @@ public class KvClassMapper<T> {
 
     public void save(String name, T object) {
         String path = path(name);
-
+        Map<String, String> values = new LinkedHashMap<>();
         for(KvProperty property: getProps(object)) {
             String strval = property.get(object);
-            String proppath = KvUtils.join(path, property.getKey());
-            try {
-                this.storage.set(proppath, strval);
-            } catch (Exception e) {
-                throw new RuntimeException("Error at path: " + proppath, e);
-            }
+            values.put(KvUtils.join(path, property.getKey()), strval);
+        }
+        try {
+            this.storage.setAll(values, null);
+        } catch (Exception e) {
+            throw new RuntimeException("Error at path: " + path, e);
         }
     }
 
@@ -112,19 +113,19 @@ public class KvClassMapper<T> {
      * @return
      */
     public T load(String name) {
+        String path = path(name);
+        Map<String, String> values = loadValues(path);
         JsonTypeInfo typeInfo = AnnotationUtils.findAnnotation(this.type, JsonTypeInfo.class);
         if (typeInfo != null) {
             String property = typeInfo.property();
-            String path = path(name);
-            String proppath = KvUtils.join(path, property);
             try {
-                String str = this.storage.get(proppath);
+                String str = values.get(property);
                 JsonSubTypes subTypes = AnnotationUtils.findAnnotation(this.type, JsonSubTypes.class);
                 for (JsonSubTypes.Type t : subTypes.value()) {
                     if (t.name().equals(str.replace("\"", ""))) {
                         @SuppressWarnings("unchecked")
                         T object = (T) BeanUtils.instantiate(t.value());
-                        load(name, object);
+                        load(path, values, object);
                         return object;
                     }
                 }
@@ -133,7 +134,7 @@ public class KvClassMapper<T> {
             }
         }
         T object = BeanUtils.instantiate(this.type);
-        load(name, object);
+        load(path, values, object);
         return object;
     }
 
@@ -144,14 +145,12 @@ public class KvClassMapper<T> {
      */
     public void load(String name, T object) {
         String path = path(name);
+        load(path, loadValues(path), object);
+    }
+
+    private void load(String path, Map<String, String> values, T object) {
         for(KvProperty property: getProps(object)) {
-            String proppath = KvUtils.join(path, property.getKey());
-            String str;
-            try {
-                str = this.storage.get(proppath);
-            } catch (Exception e) {
-                throw new RuntimeException("Error at path: " + proppath, e);
-            }
+            String str = values.get(property.getKey());
             property.set(object, str);
         }
         Validity validity = factory.validate(path, object);
@@ -159,4 +158,28 @@ public class KvClassMapper<T> {
             throw new ValidityException("Invalid : ", validity);
         }
     }
+
+    /**
+     * Read all properties of object by one request.
+     * @param path path of object
+     * @return map of property keys and its values, never null
+     */
+    private Map<String, String> loadValues(String path) {
+        Map<String, String> map;
+        try {
+            map = this.storage.map(path);
+        } catch (Exception e) {
+            throw new RuntimeException("Error at path: " + path, e);
+        }
+        Map<String, String> values = new HashMap<>();
+        if(map != null) {
+            map.forEach((key, value) -> {
+                String propName = KvUtils.suffix(path, key);
+                if(propName != null) {
+                    values.put(propName, value);
+                }
+            });
+        }
+        return values;
+    }
 }
@@ -24,6 +24,9 @@ import org.springframework.util.Assert;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -98,20 +101,26 @@ public class KvMapper<T> {
      * Save modified node data into storage
      */
     public void save() {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<KvPropertyState> saved = new ArrayList<>();
         for(KvPropertyState propState: this.props.values()) {
             if(!propState.isModified()) {
                 continue;
             }
             KvProperty property = propState.getProperty();
             String strval = property.get(this.object);
-            String path = KvUtils.join(this.prefix, property.getKey());
-            try {
-                this.storage.set(path, strval);
-            } catch (Exception e) {
-                throw new RuntimeException("Error at path: " + path, e);
-            }
-            propState.setModified(false);
+            values.put(KvUtils.join(this.prefix, property.getKey()), strval);
+            saved.add(propState);
+        }
+        if(values.isEmpty()) {
+            return;
+        }
+        try {
+            this.storage.setAll(values, null);
+        } catch (Exception e) {
+            throw new RuntimeException("Error at path: " + this.prefix, e);
         }
+        saved.forEach(propState -> propState.setModified(false));
     }
 
 
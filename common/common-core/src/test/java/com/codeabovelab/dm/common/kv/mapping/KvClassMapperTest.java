@@ -0,0 +1,65 @@
+package com.codeabovelab.dm.common.kv.mapping;
+
+import com.codeabovelab.dm.common.kv.InMemoryKeyValueStorage;
+import com.codeabovelab.dm.common.kv.KeyValueStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.junit.Test;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+import javax.validation.Validator;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ */
+public class KvClassMapperTest {
+
+    @Data
+    public static class Entry {
+        @KvMapping
+        private String name;
+        @KvMapping
+        private int number;
+        @KvMapping
+        private String description;
+    }
+
+    @Test
+    public void testOneRoundTrip() {
+        KeyValueStorage storage = spy(new InMemoryKeyValueStorage());
+        KvMapperFactory factory = new KvMapperFactory(new ObjectMapper(), storage, mock(TextEncryptor.class), mock(Validator.class));
+        KvClassMapper<Entry> mapper = factory.createClassMapper("/test/entries", Entry.class);
+
+        Entry src = new Entry();
+        src.setName("first");
+        src.setNumber(42);
+        src.setDescription("some text");
+        mapper.save("first", src);
+        verify(storage, times(1)).setAll(anyMapOf(String.class, String.class), any());
+        verify(storage, never()).set(anyString(), anyString());
+        verify(storage, never()).set(anyString(), anyString(), any());
+
+        Entry loaded = mapper.load("first");
+        verify(storage, times(1)).map(anyString());
+        verify(storage, never()).get(anyString());
+        assertEquals(src, loaded);
+    }
+
+    @Test
+    public void testLoadWithNestedDir() {
+        KeyValueStorage storage = new InMemoryKeyValueStorage();
+        KvMapperFactory factory = new KvMapperFactory(new ObjectMapper(), storage, mock(TextEncryptor.class), mock(Validator.class));
+        KvClassMapper<Entry> mapper = factory.createClassMapper("/test/nested", Entry.class);
+
+        Entry src = new Entry();
+        src.setName("first");
+        src.setNumber(7);
+        mapper.save("first", src);
+        // object directory may contain child directories, they must be skipped at loading
+        storage.set("/test/nested/first/child/key", "value");
+        assertEquals(src, mapper.load("first"));
+    }
+}
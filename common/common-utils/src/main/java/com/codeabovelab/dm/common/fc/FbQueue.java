@@ -26,8 +26,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -35,7 +38,10 @@ import java.util.stream.Collectors;
  * Current implementation make dir with name of 'queue.id' in storage,
  * then it make file for each {@link #getMaxItemsInFile() portion of elements}, pull-ed element
  * marked in file as removed, when all elements in file removed - file also removed. When file capacity
- * is exceeded, queue create new file.
+ * is exceeded, queue create new file. <p/>
+ * Queue use two locks: one for tail (adding of elements) and another for head (removing of elements), so
+ * producers does not wait consumers. Iterators work over snapshots of files and does not take queue locks.
+ * Size of queue is maintained by counter.
  */
 @Slf4j
 public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
@@ -52,6 +58,11 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
          */
         private int maxSize;
         private final FbAdapter<E> adapter;
+        /**
+         * Function which extract time (in ms) of element, it is optional and
+         * used for maintaining time index, see {@link FbQueue#iteratorSince(long)}.
+         */
+        private ToLongFunction<E> timestamp;
 
         public Builder<E> storage(FbStorage storage) {
             setStorage(storage);
@@ -68,6 +79,11 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
             return this;
         }
 
+        public Builder<E> timestamp(ToLongFunction<E> timestamp) {
+            setTimestamp(timestamp);
+            return this;
+        }
+
         public FbQueue<E> build() {
             return new FbQueue<E>(this);
         }
@@ -79,10 +95,16 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
     private final int digitsInFileName;
     private final int maxSize;
     private final FbAdapter<E> adapter;
+    private final ToLongFunction<E> timestamp;
     private final AtomicInteger filesCounter = new AtomicInteger(-1);
-    private final Object lock = new Object();
+    /**
+     * Lock for adding to tail, when it used with {@link #headLock} it must be acquired first.
+     */
+    private final Object tailLock = new Object();
+    private final Object headLock = new Object();
+    private final AtomicInteger size = new AtomicInteger();
     private final QIndexFile indexFile;
-    private final Deque<QFileHandle<E>> files = new LinkedList<>();
+    private final Deque<QFileHandle<E>> files = new ConcurrentLinkedDeque<>();
 
     private FbQueue(Builder<E> b) {
         this.id = b.id;
@@ -95,6 +117,7 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
         Assert.isTrue(this.maxSize > 0, "Queue size is less than one.");
         this.adapter = b.adapter;
         Assert.notNull(this.adapter, "Adapter is null");
+        this.timestamp = b.timestamp;
         this.queueDir = new File(this.storage.getStorageDir(), this.id);
         FbStorage.makeAndCheckDir(this.queueDir);
         this.indexFile = new QIndexFile(this.queueDir);
@@ -106,21 +129,24 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
     }
 
     private void load() {
-        synchronized (lock) {
+        synchronized (tailLock) {
             List<String> files = null;
             try {
                 indexFile.load();
                 files = indexFile.getList();
+                int size = 0;
                 for (String fileName : files) {
                     File file = new File(this.queueDir, fileName);
-                    addFileHandle(file);
+                    size += addFileHandle(file).count();
                 }
+                this.size.set(size);
             } catch (FbException|IOException e) {
                 Path dir = this.queueDir.toPath();
                 log.warn("Corrupted data in \"{}\" with error: \"{}\", clear it.", dir, e.toString());
                 //corrupted data
                 this.indexFile.delete();
                 this.files.clear();
+                this.size.set(0);
                 if(files != null) {
                     for(String fileName: files) {
                         try {
@@ -181,37 +207,74 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
             return Collections.emptyIterator();
         }
         // prevent impact of modifications to iterator we use snapshots
-        int qOffset;
+        List<QFileHandle<E>.QFileHandleSnapshot> all = new ArrayList<>();
+        int size = 0;
+        for(QFileHandle<E> fh: files) {
+            QFileHandle<E>.QFileHandleSnapshot snapshot = fh.snapshot();
+            size += snapshot.getCount();
+            all.add(snapshot);
+        }
+        if(last > size) {
+            last = size;
+        }
+        int qOffset = size - last;
         List<FbSnapshot<E>> snapshots = new ArrayList<>();
-        synchronized (lock) {
-            final int size = size();
-            if(last > size) {
-                last = size;
+        for(QFileHandle<E>.QFileHandleSnapshot snapshot: all) {
+            int count = snapshot.getCount();
+            if(snapshots.isEmpty() && qOffset > count) {
+                // we decrease offset before fist added snapshot only (last snapshot may be less than offset)
+                qOffset -= count;
+            } else {
+                snapshots.add(snapshot);
             }
-            qOffset = size - last;
-            for(QFileHandle<E> fh: files) {
-                int count = fh.count();
-                if(snapshots.isEmpty() && qOffset > count) {
-                    // we decrease offset before fist added snapshot only (last snapshot may be less than offset)
-                    qOffset -= count;
-                } else {
-                    snapshots.add(fh.snapshot());
-                }
+        }
+        return new SnapshotsIterator(snapshots, qOffset, null);
+    }
+
+    /**
+     * Iterate from head (first added element) to tail over elements with time greater or equal than specified. <p/>
+     * When queue has {@link Builder#timestamp(ToLongFunction) time function}, then it skip files which
+     * contains only older elements, and older elements of other files are skipped by persisted time index
+     * without reading. Otherwise it simply iterate over all elements.
+     * @param time time in ms
+     * @return iterator which traverse over queue snapshot.
+     */
+    public Iterator<E> iteratorSince(long time) {
+        if(this.timestamp == null) {
+            return iterator();
+        }
+        List<FbSnapshot<E>> snapshots = new ArrayList<>();
+        for(QFileHandle<E> fh: files) {
+            if(fh.getMaxTime() < time) {
+                continue;
             }
+            snapshots.add(fh.snapshotSince(time));
         }
-        final int fisrtOffset = qOffset;
-        return new Iterator<E>() {
-            final Iterator<FbSnapshot<E>> snapshotsIter = snapshots.iterator();
-            final List<E> itemsBuff = new ArrayList<>(QFileHandle.ITEMS_IN_FILE);
-            Iterator<E> iterator = Collections.emptyIterator();
-            private boolean fisrt = true;
-
-            @Override
-            public boolean hasNext() {
-                boolean hasNext = iterator.hasNext();
-                if(hasNext) {
-                    return true;
-                }
+        return new SnapshotsIterator(snapshots, 0, null);
+    }
+
+    private final class SnapshotsIterator implements Iterator<E> {
+        private final Iterator<FbSnapshot<E>> snapshotsIter;
+        private final List<E> itemsBuff = new ArrayList<>(QFileHandle.ITEMS_IN_FILE);
+        private final int fisrtOffset;
+        private final Predicate<E> filter;
+        private Iterator<E> iterator = Collections.emptyIterator();
+        private boolean fisrt = true;
+
+        /**
+         * @param snapshots snapshots of files
+         * @param fisrtOffset offset in first snapshot
+         * @param filter filter or null
+         */
+        SnapshotsIterator(List<FbSnapshot<E>> snapshots, int fisrtOffset, Predicate<E> filter) {
+            this.snapshotsIter = snapshots.iterator();
+            this.fisrtOffset = fisrtOffset;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while(!iterator.hasNext()) {
                 if(!snapshotsIter.hasNext()) {
                     return false;
                 }
@@ -222,48 +285,40 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
                     offset = fisrtOffset;
                 }
                 itemsBuff.clear();
-                snapshot.visit(offset, itemsBuff::add);
+                if(filter == null) {
+                    snapshot.visit(offset, itemsBuff::add);
+                } else {
+                    snapshot.visit(offset, e -> {
+                        if(filter.test(e)) {
+                            itemsBuff.add(e);
+                        }
+                    });
+                }
                 iterator = itemsBuff.iterator();
-                return iterator.hasNext();
             }
+            return true;
+        }
 
-            @Override
-            public E next() {
-                return iterator.next();
-            }
-        };
+        @Override
+        public E next() {
+            return iterator.next();
+        }
     }
 
     @Override
     public int size() {
-        int size = 0;
-        synchronized (lock) {
-            for(QFileHandle<E> fh: files) {
-                size += fh.count();
-            }
-        }
-        return size;
+        return size.get();
     }
 
     @Override
     public boolean offer(E e) {
         Assert.notNull(e, "element is null");
-        synchronized (lock) {
-            int size = 0;
-            QFileHandle<E> last = null;
-            for(QFileHandle<E> fh: files) {
-                size += fh.count();
-                last = fh;
-            }
-            if(size >= maxSize) {
+        synchronized (tailLock) {
+            if(size.get() >= maxSize) {
                 return false;
             }
-            while(true) {
-                if(last != null && last.offer(e)) {
-                    return true;
-                }
-                last = allocate(last);
-            }
+            append(e);
+            return true;
         }
     }
 
@@ -274,23 +329,24 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
      */
     public void push(E e) {
         Assert.notNull(e, "element is null");
-        synchronized (lock) {
-            int size = 0;
-            QFileHandle<E> last = null;
-            for(QFileHandle<E> fh: files) {
-                size += fh.count();
-                last = fh;
-            }
-            while(size >= maxSize) {
-                poll();
-                size--;
-            }
-            while(true) {
-                if(last != null && last.offer(e)) {
-                    return;
+        synchronized (tailLock) {
+            while(size.get() >= maxSize) {
+                if(poll() == null) {
+                    break;
                 }
-                last = allocate(last);
             }
+            append(e);
+        }
+    }
+
+    private void append(E e) {
+        QFileHandle<E> last = files.peekLast();
+        while(true) {
+            if(last != null && last.offer(e)) {
+                size.incrementAndGet();
+                return;
+            }
+            last = allocate(last);
         }
     }
 
@@ -298,6 +354,9 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
     public E poll() {
         return onHead((fh) -> {
             E val = fh.poll();
+            if(val != null) {
+                size.decrementAndGet();
+            }
             deallocate(fh);
             return val;
         });
@@ -312,7 +371,7 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
     }
 
     private <T> T onHead(Function<QFileHandle<E>, T> consumer) {
-        synchronized (lock) {
+        synchronized (headLock) {
             QFileHandle<E> fh;
             while(true) {
                 fh = files.peekFirst();
@@ -323,14 +382,17 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
                     if(fh.count() != 0) {
                         return consumer.apply(fh);
                     }
-                    deallocate(fh);
+                    if(!deallocate(fh)) {
+                        // empty tail file
+                        return null;
+                    }
                 }
             }
         }
     }
 
     private QFileHandle<E> allocate(QFileHandle<E> oldHead) {
-        synchronized (lock) {
+        synchronized (tailLock) {
             try {
                 QFileHandle<E> currHead = files.peekLast();
                 if(currHead == oldHead) {
@@ -346,19 +408,28 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
 
     private QFileHandle<E> addFileHandle(File file) throws IOException {
         QFileHandle<E> currHead;
-        currHead = new QFileHandle<>(this.storage, this.adapter, file);
+        currHead = new QFileHandle<>(this.storage, this.adapter, this.timestamp, file);
         files.addLast(currHead);
         return currHead;
     }
 
-    private void deallocate(QFileHandle<E> fh) {
+    /**
+     * Remove empty file. Must be called under {@link #headLock}.
+     * @param fh file handle
+     * @return true when file was removed
+     */
+    private boolean deallocate(QFileHandle<E> fh) {
+        // last file may be used by producer, it will be removed after allocation of next file,
+        // which is happen only when last file is full
+        if(fh.count() != 0 || files.peekLast() == fh) {
+            return false;
+        }
         // we cannot remove first because it may be
         // already removed from another thread, and we
         // have only one method which can remove compare and remove first
-        if(fh.count() == 0) {
-            files.removeFirstOccurrence(fh);
-            fh.remove();
-        }
+        files.removeFirstOccurrence(fh);
+        fh.remove();
+        return true;
     }
 
     private File allocateFile() throws IOException {
@@ -385,12 +456,15 @@ public final class FbQueue<E> extends AbstractQueue<E> implements FileBased {
 
     @Override
     public void close() throws Exception {
-        synchronized (lock) {
-            indexFile.setList(this.files.stream().map(QFileHandle::getFileName).collect(Collectors.toList()));
-            indexFile.close();
-            QFileHandle<E> fh;
-            while((fh = files.pollFirst()) != null) {
-                Closeables.close(fh);
+        synchronized (tailLock) {
+            synchronized (headLock) {
+                indexFile.setList(this.files.stream().map(QFileHandle::getFileName).collect(Collectors.toList()));
+                indexFile.close();
+                QFileHandle<E> fh;
+                while((fh = files.pollFirst()) != null) {
+                    Closeables.close(fh);
+                }
+                size.set(0);
             }
         }
     }
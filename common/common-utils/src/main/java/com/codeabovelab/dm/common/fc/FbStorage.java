@@ -40,6 +40,11 @@ public class FbStorage {
          * path to storage
          */
         private String path;
+        /**
+         * Count of writes after which file is forced to disk. Zero (default) mean that we rely on OS, one mean
+         * force after each write, greater values allow to group many writes into one commit.
+         */
+        private int syncEvery;
 
         public Builder maxFileSize(long maxFileSize) {
             setMaxFileSize(maxFileSize);
@@ -61,6 +66,11 @@ public class FbStorage {
             return this;
         }
 
+        public Builder syncEvery(int syncEvery) {
+            setSyncEvery(syncEvery);
+            return this;
+        }
+
         public FbStorage build() {
             return new FbStorage(this);
         }
@@ -69,6 +79,7 @@ public class FbStorage {
     private final long maxFileSize;
     private final int maxFiles;
     private final File storageDir;
+    private final int syncEvery;
 
 
     private FbStorage(Builder b) {
@@ -76,6 +87,8 @@ public class FbStorage {
         Assert.isTrue(this.maxFileSize > 0, "maxFileSize is less than one");
         this.maxFiles = b.maxFiles;
         Assert.isTrue(this.maxFiles > 0, "maxFiles is less than one");
+        this.syncEvery = b.syncEvery;
+        Assert.isTrue(this.syncEvery >= 0, "syncEvery is less than zero");
         this.storageDir = new File(b.path);
         makeAndCheckDir(this.storageDir);
     }
@@ -20,11 +20,13 @@ import com.codeabovelab.dm.common.utils.Closeables;
 import org.springframework.util.Assert;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 /**
  * File handle. <p/>
@@ -33,8 +35,8 @@ import java.util.function.Consumer;
  *  entry:
  *          collection type (1b)
  *      sign |  version (1b)
- *     / 3b \|\/| /index of queue\
- *     F11EBA0001[  int32[1024]  ][all other space - data]
+ *     / 3b \|\/| /index of queue\/ time index \
+ *     F11EBA0002[  int32[1024]  ][ int64[1024] ][all other space - data]
  *
  *  index of queue:
  *   most significant byte
@@ -42,6 +44,8 @@ import java.util.function.Consumer;
  *     \  all other 31 bits - the size of each item in Big-endian
  *      \/
  *     [00 00 00 00] * N
+ *
+ *  time index: time of each item in Big-endian, it is written with item of queue index
  * </pre>
  */
 final class QFileHandle<E> implements AutoCloseable {
@@ -56,24 +60,40 @@ final class QFileHandle<E> implements AutoCloseable {
     static final int ITEMS_IN_FILE = 1024;
     private static final int DIRTY_COUNT = -1;
     private static final byte QUEUE_TYPE = 0x00;
-    private static final byte SCHEMA_VERSION = 0x01;
+    private static final byte SCHEMA_VERSION = 0x02;
     private static final int INDEX_OFF = 2 + FbUtils.SIGN_LEN;
-    private static final int HEADER_OFF = ITEMS_IN_FILE * 4 + INDEX_OFF;
+    private static final int TIMES_OFF = ITEMS_IN_FILE * 4 + INDEX_OFF;
+    private static final int HEADER_OFF = ITEMS_IN_FILE * 8 + TIMES_OFF;
     private final FbStorage storage;
     private final File file;
     private final RandomAccessFile raf;
     private final int[] index = new int[ITEMS_IN_FILE];
     private final ByteBuffer indexBuff = ByteBuffer.allocate(ITEMS_IN_FILE * 4).order(ByteOrder.BIG_ENDIAN);
+    /**
+     * Time of each item, it is filled only when queue has time function.
+     */
+    private final long[] times = new long[ITEMS_IN_FILE];
     private final FbAdapter<E> adapter;
+    private final ToLongFunction<E> timestamp;
+    /**
+     * Bounds of item time in file. Removed items may be counted, so it is wider than actual.
+     */
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
     private int maxItemSize = 64 /* initial number number mean nothing*/;
     private int count = DIRTY_COUNT;
     private int tail;
     private long tailOff;
+    /**
+     * Count of writes which is not forced to disk, see {@link FbStorage#getSyncEvery()}.
+     */
+    private int unsynced;
 
-    QFileHandle(FbStorage storage, FbAdapter<E> adapter, File file) throws IOException {
+    QFileHandle(FbStorage storage, FbAdapter<E> adapter, ToLongFunction<E> timestamp, File file) throws IOException {
         this.storage = storage;
         this.file = file;
         this.adapter = adapter;
+        this.timestamp = timestamp;
         this.raf = new RandomAccessFile(this.file, "rw");
         if(this.raf.length() == 0) {
             save();
@@ -90,6 +110,20 @@ final class QFileHandle<E> implements AutoCloseable {
         for(int i = 0; i < index.length; ++i) {
             index[i] = this.raf.readInt();
         }
+        ByteBuffer timesBuff = ByteBuffer.allocate(ITEMS_IN_FILE * 8).order(ByteOrder.BIG_ENDIAN);
+        this.raf.readFully(timesBuff.array());
+        timesBuff.asLongBuffer().get(times);
+        if(timestamp != null) {
+            for(int i = 0; i < index.length; ++i) {
+                int item = index[i];
+                if(getSize(item) == 0) {
+                    break;
+                }
+                if(!isDeleted(item)) {
+                    updateTimeBounds(times[i]);
+                }
+            }
+        }
     }
 
     private synchronized void save() throws IOException {
@@ -106,6 +140,48 @@ final class QFileHandle<E> implements AutoCloseable {
         indexBuff.asIntBuffer().put(index);
         indexBuff.flip();
         this.raf.write(indexBuff.array());
+        ByteBuffer timesBuff = ByteBuffer.allocate(ITEMS_IN_FILE * 8).order(ByteOrder.BIG_ENDIAN);
+        timesBuff.asLongBuffer().put(times);
+        this.raf.write(timesBuff.array());
+    }
+
+    /**
+     * Write only one changed item of index.
+     * @param i number of item
+     */
+    private synchronized void saveIndexItem(int i) throws IOException {
+        this.raf.seek(INDEX_OFF + i * 4);
+        this.raf.writeInt(index[i]);
+        onWrite();
+    }
+
+    /**
+     * Write one item of index with its time.
+     * @param i number of item
+     */
+    private synchronized void saveIndexItemWithTime(int i) throws IOException {
+        this.raf.seek(TIMES_OFF + i * 8);
+        this.raf.writeLong(times[i]);
+        saveIndexItem(i);
+    }
+
+    private void updateTimeBounds(long time) {
+        this.minTime = Math.min(this.minTime, time);
+        this.maxTime = Math.max(this.maxTime, time);
+    }
+
+    private void onWrite() throws IOException {
+        int syncEvery = storage.getSyncEvery();
+        if(syncEvery > 0 && ++unsynced >= syncEvery) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        unsynced = 0;
+        // FileChannel.force() is interruptible and would close the file for an interrupted writer,
+        // descriptor sync is not
+        raf.getFD().sync();
     }
 
     private synchronized void iterate(Visitor v) {
@@ -176,12 +252,17 @@ final class QFileHandle<E> implements AutoCloseable {
             if(bytes == null || bytes.length == 0) {
                 throw new FbException("Adapter return null or empty buffer for: " + e);
             }
+            long time = timestamp == null ? 0 : timestamp.applyAsLong(e);
             this.raf.seek(this.tailOff);
             this.raf.write(bytes);
             index[tail] = bytes.length;
+            times[tail] = time;
             //TODO we need update runtime index only after success save
             // for prevent index corrupt
-            saveIndex();
+            saveIndexItemWithTime(tail);
+            if(timestamp != null) {
+                updateTimeBounds(time);
+            }
         } catch (IOException ex) {
             throw new FbException(ex);
         } finally {
@@ -190,6 +271,22 @@ final class QFileHandle<E> implements AutoCloseable {
         return true;
     }
 
+    /**
+     * Max time of items in this file. Removed items may be counted, so it is upper bound.
+     * @return time in ms or {@link Long#MIN_VALUE} when file is empty or queue has not time function
+     */
+    synchronized long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Min time of items in this file. Removed items may be counted, so it is lower bound.
+     * @return time in ms or {@link Long#MAX_VALUE} when file is empty or queue has not time function
+     */
+    synchronized long getMinTime() {
+        return minTime;
+    }
+
     private void dirty() {
         this.count = DIRTY_COUNT;
     }
@@ -209,6 +306,9 @@ final class QFileHandle<E> implements AutoCloseable {
 
     @Override
     public synchronized void close() throws Exception {
+        if(unsynced > 0) {
+            sync();
+        }
         raf.close();
     }
 
@@ -217,7 +317,7 @@ final class QFileHandle<E> implements AutoCloseable {
      * @param consumer
      */
     synchronized void readAllTo(Consumer<E> consumer) {
-        iterate(new ReadVisitor(consumer));
+        iterate(new ReadVisitor(raf, consumer));
     }
 
     private static int getSize(int item) {
@@ -257,7 +357,7 @@ final class QFileHandle<E> implements AutoCloseable {
             index[i] |= DEL_MASK;
             dirty();
             try {
-                saveIndex();
+                saveIndexItem(i);
             } catch (IOException e) {
                 throw new FbException(e);
             }
@@ -268,20 +368,38 @@ final class QFileHandle<E> implements AutoCloseable {
         return this.file.getName();
     }
 
-    public FbSnapshot<E> snapshot() {
-        return new QFileHandleSnapshot();
+    public QFileHandleSnapshot snapshot() {
+        return new QFileHandleSnapshot(null);
+    }
+
+    /**
+     * Snapshot which visit only items with time greater or equal than specified. Time of items is taken
+     * from time index, so older items are not read.
+     * @param since time in ms
+     * @return snapshot
+     */
+    public QFileHandleSnapshot snapshotSince(long since) {
+        Assert.notNull(timestamp, "Queue has not time function.");
+        return new QFileHandleSnapshot(since);
     }
 
     class QFileHandleSnapshot implements FbSnapshot<E> {
         private final int[] index = new int[ITEMS_IN_FILE];
+        private final long[] times;
+        private final long since;
         private final int count;
         private final int tail;
         private final long tailOff;
         private final int maxItemSize;
 
-        QFileHandleSnapshot() {
+        QFileHandleSnapshot(Long since) {
+            this.times = since == null ? null : new long[ITEMS_IN_FILE];
+            this.since = since == null ? Long.MIN_VALUE : since;
             synchronized (QFileHandle.this) {
                 System.arraycopy(QFileHandle.this.index, 0, this.index, 0, QFileHandle.this.index.length);
+                if(this.times != null) {
+                    System.arraycopy(QFileHandle.this.times, 0, this.times, 0, QFileHandle.this.times.length);
+                }
                 this.maxItemSize = QFileHandle.this.maxItemSize;
                 this.count = QFileHandle.this.count();
                 this.tail = QFileHandle.this.tail;
@@ -289,11 +407,36 @@ final class QFileHandle<E> implements AutoCloseable {
             }
         }
 
+        /**
+         * Count of items in file at time of snapshot creation.
+         * @return count of items
+         */
+        int getCount() {
+            return count;
+        }
+
         @Override
         public void visit(int offset, Consumer<E> consumer) {
-            ReadVisitor rv = new ReadVisitor(consumer);
-            rv.setStart(offset);
-            QFileHandle.iterate(index, rv);
+            // snapshot reads through its own read-only file, so it does not move pointer of the handle file and
+            // an interrupted reader can not close it (as it do with FileChannel)
+            RandomAccessFile source;
+            try {
+                source = new RandomAccessFile(file, "r");
+            } catch (FileNotFoundException e) {
+                if(!file.exists()) {
+                    // file is removed from queue concurrently, therefore its items are removed too
+                    return;
+                }
+                throw new FbException(e);
+            }
+            try {
+                ReadVisitor rv = new ReadVisitor(source, consumer);
+                rv.setStart(offset);
+                rv.setSince(times, since);
+                QFileHandle.iterate(index, rv);
+            } finally {
+                Closeables.close(source);
+            }
         }
 
         @Override
@@ -307,11 +450,15 @@ final class QFileHandle<E> implements AutoCloseable {
 
     private class ReadVisitor implements Visitor {
 
+        private final RandomAccessFile source;
         private final Consumer<E> consumer;
         byte[]  buff;
         int start;
+        long[] times;
+        long since;
 
-        public ReadVisitor(Consumer<E> consumer) {
+        public ReadVisitor(RandomAccessFile source, Consumer<E> consumer) {
+            this.source = source;
             this.consumer = consumer;
             buff = new byte[maxItemSize];
         }
@@ -324,16 +471,26 @@ final class QFileHandle<E> implements AutoCloseable {
             this.start = start;
         }
 
+        /**
+         * Skip items which is older than specified time, without reading.
+         * @param times time index or null
+         * @param since time
+         */
+        public void setSince(long[] times, long since) {
+            this.times = times;
+            this.since = since;
+        }
+
         @Override
         public boolean visit(int i, int size, int offset) throws IOException {
-            if(i < this.start) {
+            if(i < this.start || (times != null && times[i] < since)) {
                 return true;
             }
             if(size > buff.length) {
                 buff = new byte[maxItemSize = size];
             }
-            raf.seek(offset);
-            raf.readFully(buff, 0, size);
+            source.seek(offset);
+            source.readFully(buff, 0, size);
             E e = adapter.deserialize(buff, 0, size);
             consumer.accept(e);
             return true;
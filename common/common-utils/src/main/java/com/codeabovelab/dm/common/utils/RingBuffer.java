@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.common.utils;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded buffer which keep last 'capacity' items, when full the oldest item is overwritten. <p/>
+ * Adding is O(1), readers receive ordered (from oldest to newest) snapshot which is not changed by subsequent writes.
+ * Snapshot is cached until next write, so repeated reads do not copy buffer and do not take lock.
+ * Thread safe.
+ */
+public final class RingBuffer<T> {
+    private final Object[] items;
+    private final Object lock = new Object();
+    /**
+     * Count of all added items, next item is placed at 'count % capacity'.
+     */
+    private long count;
+    /**
+     * Cached snapshot, it reset on each write.
+     */
+    private volatile List<T> snapshot;
+
+    public RingBuffer(int capacity) {
+        Assert.isTrue(capacity > 0, "capacity must be greater than zero");
+        this.items = new Object[capacity];
+    }
+
+    public void add(T item) {
+        synchronized (lock) {
+            items[(int) (count % items.length)] = item;
+            count++;
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Ordered copy of buffer content.
+     * @return unmodifiable list, from oldest to newest item
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> snapshot() {
+        List<T> curr = this.snapshot;
+        if(curr != null) {
+            return curr;
+        }
+        synchronized (lock) {
+            curr = this.snapshot;
+            if(curr != null) {
+                return curr;
+            }
+            int size = size();
+            if(size == 0) {
+                curr = Collections.emptyList();
+            } else {
+                List<T> list = new ArrayList<>(size);
+                int first = (int) ((count - size) % items.length);
+                for(int i = 0; i < size; ++i) {
+                    list.add((T) items[(first + i) % items.length]);
+                }
+                curr = Collections.unmodifiableList(list);
+            }
+            this.snapshot = curr;
+            return curr;
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return (int) Math.min(count, items.length);
+        }
+    }
+
+    public int getCapacity() {
+        return items.length;
+    }
+}
@@ -16,22 +16,31 @@
 
 package com.codeabovelab.dm.common.utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
- * Provide cache of single value.
- *
+ * Provide cache of single value. <p/>
+ * By default expired value is loaded synchronously, and other callers wait for it. When
+ * {@link Builder#refreshExecutor(Executor) refresh executor} is specified, then expired value returned
+ * immediately and only one refresh is run in background ('stale-while-revalidate'). Stale value is returned
+ * no longer than {@link Builder#maxStale(long) max stale} after its expiration, then value is loaded synchronously.
  */
 public class SingleValueCache<T> implements Supplier<T> {
 
     public static class Builder<T> {
         private final Supplier<T> supplier;
         private long timeAfterWrite;
+        private long maxStale = -1;
+        private Executor refreshExecutor;
 
         Builder(Supplier<T> supplier) {
             this.supplier = supplier;
@@ -59,20 +68,85 @@ public class SingleValueCache<T> implements Supplier<T> {
             this.timeAfterWrite = timeAfterWrite;
         }
 
+        public long getMaxStale() {
+            return maxStale;
+        }
+
+        public Builder<T> maxStale(TimeUnit unit, long maxStale) {
+            setMaxStale(unit.toMillis(maxStale));
+            return this;
+        }
+
+        /**
+         * How long expired value may be returned while it refreshed in background. When it elapsed, then
+         * caller load value synchronously and receive error of loading. Negative value (default) mean ten times of
+         * {@link #timeAfterWrite(long) time after write}.
+         * @param maxStale time in ms
+         * @return this
+         */
+        public Builder<T> maxStale(long maxStale) {
+            setMaxStale(maxStale);
+            return this;
+        }
+
+        public void setMaxStale(long maxStale) {
+            this.maxStale = maxStale;
+        }
+
+        public Executor getRefreshExecutor() {
+            return refreshExecutor;
+        }
+
+        /**
+         * Executor for background refreshing of expired value. When it null (default)
+         * expired value is refreshed synchronously.
+         * @param refreshExecutor executor or null
+         * @return this
+         */
+        public Builder<T> refreshExecutor(Executor refreshExecutor) {
+            setRefreshExecutor(refreshExecutor);
+            return this;
+        }
+
+        public void setRefreshExecutor(Executor refreshExecutor) {
+            this.refreshExecutor = refreshExecutor;
+        }
+
         public SingleValueCache<T> build() {
             return new SingleValueCache<>(this);
         }
     }
+    private static final Logger LOG = LoggerFactory.getLogger(SingleValueCache.class);
+    /**
+     * Failures of background refresh are logged with stack trace no more than once in this period.
+     */
+    private static final long ERROR_LOG_PERIOD = TimeUnit.MINUTES.toMillis(1);
+    private static final long DEFAULT_STALE_FACTOR = 10;
     private final Supplier<T> supplier;
     private volatile T value;
     private volatile T oldValue;
     private volatile long writeTime;
     private final Lock lock = new ReentrantLock();
     private final long taw;
+    /**
+     * Time after write when stale value can not be returned.
+     */
+    private final long staleLimit;
+    private final Executor refreshExecutor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // guarded by lock
+    private long lastErrorLog;
+    private int suppressedErrors;
 
     private SingleValueCache(Builder<T> builder) {
         this.supplier = builder.supplier;
         this.taw = builder.timeAfterWrite;
+        long maxStale = builder.maxStale;
+        if(maxStale < 0) {
+            maxStale = this.taw > Long.MAX_VALUE / DEFAULT_STALE_FACTOR ? Long.MAX_VALUE : this.taw * DEFAULT_STALE_FACTOR;
+        }
+        this.staleLimit = maxStale > Long.MAX_VALUE - this.taw ? Long.MAX_VALUE : this.taw + maxStale;
+        this.refreshExecutor = builder.refreshExecutor;
     }
 
     public static <T> Builder<T> builder(Supplier<T> supplier) {
@@ -81,17 +155,64 @@ public class SingleValueCache<T> implements Supplier<T> {
 
     @Override
     public T get() {
-        while(true) {
-            if(lock.tryLock()) {
+        T curr = this.value;
+        if(curr != null) {
+            long time = System.currentTimeMillis();
+            if(!isExpired(time)) {
+                return curr;
+            }
+            if(refreshExecutor != null && time - writeTime <= staleLimit) {
+                scheduleRefresh();
+                return curr;
+            }
+        }
+        // waiters are parked on lock, instead of spinning
+        lock.lock();
+        try {
+            return loadIfNeed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleRefresh() {
+        if(!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                lock.lock();
                 try {
-                    return loadIfNeed();
+                    loadIfNeed();
+                } catch (Exception e) {
+                    // we leave stale value and try again at next call
+                    logRefreshError(e);
                 } finally {
                     lock.unlock();
+                    refreshing.set(false);
                 }
-            }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            throw e;
         }
     }
 
+    /**
+     * Refresh is repeated at each call of expired value, so we log stack trace only once per period.
+     */
+    private void logRefreshError(Exception e) {
+        long time = System.currentTimeMillis();
+        if(time - lastErrorLog < ERROR_LOG_PERIOD) {
+            suppressedErrors++;
+            LOG.debug("Can not refresh value from '{}': {}", supplier, e.toString());
+            return;
+        }
+        LOG.error("Can not refresh value from '{}', {} errors suppressed since last report", supplier, suppressedErrors, e);
+        lastErrorLog = time;
+        suppressedErrors = 0;
+    }
+
     /**
      * Get previous value
      * @return previous value or null
@@ -105,15 +226,21 @@ public class SingleValueCache<T> implements Supplier<T> {
         }
     }
 
+    private boolean isExpired(long time) {
+        return writeTime + taw < time;
+    }
+
     private T loadIfNeed() {
         long time = System.currentTimeMillis();
-        if(value != null && writeTime + taw >= time) {
+        if(value != null && !isExpired(time)) {
             return value;
         }
-        writeTime = time;
+        // fields are changed only after successful load, so failed load leave stale value expired
+        T newValue = supplier.get();
+        Assert.notNull(newValue, "Supplier '" + supplier + "' return null value");
         oldValue = value;
-        value = supplier.get();
-        Assert.notNull(value, "Supplier '" + supplier + "' return null value");
-        return value;
+        value = newValue;
+        writeTime = time;
+        return newValue;
     }
 }
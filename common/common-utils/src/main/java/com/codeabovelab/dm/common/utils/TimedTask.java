@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.common.utils;
+
+import org.springframework.util.Assert;
+
+import java.util.concurrent.*;
+
+/**
+ * Task with timeout which is counted from start of task, so time which task spent in queue of executor
+ * is not counted. <p/>
+ * Usage: <pre>
+ * TimedTask&lt;T&gt; task = TimedTask.submit(executor, callable, timeout);
+ * T result = task.get(); // throws TimeoutException and cancel task when it run longer than timeout
+ * </pre>
+ */
+public final class TimedTask<T> implements Callable<T> {
+
+    private final Callable<T> callable;
+    private final long timeout;
+    private volatile long started;
+    private volatile Future<T> future;
+
+    /**
+     * Create task, it must be submitted by {@link #submit(ExecutorService)}.
+     * @param callable task
+     * @param timeout timeout in milliseconds
+     */
+    public TimedTask(Callable<T> callable, long timeout) {
+        Assert.notNull(callable, "callable is null");
+        this.callable = callable;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Create and submit task.
+     * @throws RejectedExecutionException when executor reject task
+     * @see #TimedTask(Callable, long)
+     */
+    public static <T> TimedTask<T> submit(ExecutorService executor, Callable<T> callable, long timeout) {
+        TimedTask<T> task = new TimedTask<>(callable, timeout);
+        task.submit(executor);
+        return task;
+    }
+
+    /**
+     * Submit task to executor.
+     * @param executor executor
+     * @throws RejectedExecutionException when executor reject task
+     */
+    public void submit(ExecutorService executor) {
+        Assert.isNull(this.future, "Task is already submitted.");
+        this.future = executor.submit(this);
+    }
+
+    @Override
+    public T call() throws Exception {
+        started = System.currentTimeMillis();
+        return callable.call();
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Wait result no more than timeout after start of task. Task is cancelled on timeout. <p/>
+     * Note that it wait start of task without limit, so use {@link #get(long)} when executor may be overloaded.
+     * @return result of task
+     * @throws TimeoutException when task is not completed in timeout
+     * @throws CancellationException when task was cancelled
+     * @see #get(long)
+     */
+    public T get() throws InterruptedException, ExecutionException, TimeoutException {
+        return get(Long.MAX_VALUE);
+    }
+
+    /**
+     * Wait result no more than timeout after start of task, and no longer than deadline, include time
+     * which task spent in queue. Task is cancelled on timeout.
+     * @param deadline time in milliseconds, like {@link System#currentTimeMillis()}
+     * @return result of task
+     * @throws TimeoutException when task is not completed in timeout or before deadline
+     * @throws CancellationException when task was cancelled
+     */
+    public T get(long deadline) throws InterruptedException, ExecutionException, TimeoutException {
+        Future<T> future = this.future;
+        Assert.notNull(future, "Task is not submitted.");
+        while(true) {
+            long start = started;
+            long now = System.currentTimeMillis();
+            long end = (start == 0) ? deadline : Math.min(start + timeout, deadline);
+            if(end <= now) {
+                future.cancel(true);
+                throw new TimeoutException();
+            }
+            // while task is in queue we wait no more than timeout, and then check its start again
+            long wait = (start == 0) ? Math.min(timeout, end - now) : end - now;
+            try {
+                return future.get(wait, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check start and deadline again
+            }
+        }
+    }
+
+    /**
+     * Cancel task with interruption.
+     */
+    public void cancel() {
+        Future<T> future = this.future;
+        if(future != null) {
+            future.cancel(true);
+        }
+    }
+}
@@ -281,6 +281,101 @@ public class FbQueueTest {
     }
 
 
+    @Test
+    public void testConcurrentIteration() throws Exception {
+        // 'maxFiles' is 3, so queue must not take more than 2 full files
+        final int queueSize = 2000;
+        final int items = queueSize * 3;
+        FbQueue<String> queue = makeQueue("testConcurrentIteration", queueSize);
+        List<Exception> fails = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger written = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        executor.execute(() -> {
+            try {
+                for(int i = 0; i < items; ++i) {
+                    queue.push("<" + i + ">");
+                    written.incrementAndGet();
+                }
+            } catch (Exception e) {
+                log.error("", e);
+                fails.add(e);
+            }
+        });
+        executor.execute(() -> {
+            try {
+                while(written.get() < items) {
+                    int prev = -1;
+                    Iterator<String> iter = queue.iterator();
+                    while(iter.hasNext()) {
+                        String item = iter.next();
+                        int curr = Integer.parseInt(item.substring(1, item.length() - 1));
+                        Assert.assertTrue("Order is broken: " + prev + " before " + curr, prev < curr);
+                        prev = curr;
+                    }
+                }
+            } catch (Exception | AssertionError e) {
+                log.error("", e);
+                fails.add(new Exception(e));
+            }
+        });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        if(!fails.isEmpty()) {
+            fail("Fail due errors:" + fails);
+        }
+        assertEquals(queueSize, queue.size());
+        queue.close();
+    }
+
+    @Test
+    public void testInterruptedIteration() throws Exception {
+        final int queueSize = 100;
+        FbQueue<String> queue = makeQueue("testInterruptedIteration", queueSize);
+        for(int i = 0; i < queueSize; ++i) {
+            queue.add("<" + i + ">");
+        }
+        Thread.currentThread().interrupt();
+        try {
+            assertIterator(queue, Integer.MAX_VALUE, 0);
+        } finally {
+            // clear flag for other tests
+            Thread.interrupted();
+        }
+        // interrupted reader must not close file of queue
+        assertEquals("<0>", queue.poll());
+        queue.add("<" + queueSize + ">");
+        assertEquals(queueSize, queue.size());
+        queue.close();
+    }
+
+    @Test
+    public void testSyncedPersistence() throws Exception {
+        storage = FbStorage.builder()
+          .maxFiles(3)
+          .maxFileSize(1024 * 1024 /* 1 MiB */)
+          .path(rootDir)
+          .syncEvery(7)
+          .build();
+        final String id = "testSyncedPersistence";
+        final int queueSize = 1500;
+        {
+            FbQueue<String> queue = makeQueue(id, queueSize);
+            for(int i = 0; i < queueSize; ++i) {
+                queue.add("<" + i + ">");
+            }
+            for(int i = 0; i < 10; ++i) {
+                assertEquals("<" + i + ">", queue.poll());
+            }
+            queue.close();
+        }
+        {
+            FbQueue<String> queue = makeQueue(id, queueSize);
+            assertEquals(queueSize - 10, queue.size());
+            assertEquals("<10>", queue.peek());
+            queue.close();
+        }
+    }
+
     @Test
     public void testIterator() throws Exception {
         final int queueSize = 3000;
@@ -305,4 +400,74 @@ public class FbQueueTest {
         }
         assertEquals(expected, i - first);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIteratorSince() throws Exception {
+        final int queueSize = 3000;
+        String id = "testIteratorSince";
+        FbQueue<String> queue = makeTimedQueue(id, queueSize);
+        for(int i = 0; i < queueSize; ++i) {
+            queue.add("<" + i + ">");
+        }
+        assertIteratorSince(queue, 2500, queueSize);
+        queue.close();
+        // time index of loaded files
+        queue = makeTimedQueue(id, queueSize);
+        assertIteratorSince(queue, 1000, queueSize);
+        assertIteratorSince(queue, queueSize, queueSize);
+        queue.close();
+    }
+
+    @Test
+    public void testIteratorSinceSkipsOlderItems() throws Exception {
+        final int queueSize = 3000;
+        String id = "testIteratorSinceSkipsOlderItems";
+        FbQueue<String> queue = makeTimedQueue(id, queueSize);
+        for(int i = 0; i < queueSize; ++i) {
+            queue.add("<" + i + ">");
+        }
+        queue.close();
+        AtomicInteger deserialized = new AtomicInteger();
+        FbAdapter<String> countingAdapter = new FbAdapter<String>() {
+            @Override
+            public byte[] serialize(String obj) {
+                return stringAdapter.serialize(obj);
+            }
+
+            @Override
+            public String deserialize(byte[] data, int offset, int len) {
+                deserialized.incrementAndGet();
+                return stringAdapter.deserialize(data, offset, len);
+            }
+        };
+        queue = makeTimedQueue(id, queueSize, countingAdapter);
+        // loading of time index does not read items
+        assertEquals(0, deserialized.get());
+        assertIteratorSince(queue, 2500, queueSize);
+        assertEquals(queueSize - 2500, deserialized.get());
+        queue.close();
+    }
+
+    private FbQueue<String> makeTimedQueue(String id, int queueSize) {
+        return makeTimedQueue(id, queueSize, stringAdapter);
+    }
+
+    private FbQueue<String> makeTimedQueue(String id, int queueSize, FbAdapter<String> adapter) {
+        return FbQueue.builder(adapter)
+          .maxSize(queueSize)
+          .id(id)
+          .storage(storage)
+          .timestamp(s -> Long.parseLong(s.substring(1, s.length() - 1)))
+          .build();
+    }
+
+    private void assertIteratorSince(FbQueue<String> queue, int since, int end) {
+        Iterator<String> iter = queue.iteratorSince(since);
+        int i = since;
+        while(iter.hasNext()) {
+            assertEquals("<" + i + ">", iter.next());
+            i++;
+        }
+        assertEquals(end, i);
+    }
+}
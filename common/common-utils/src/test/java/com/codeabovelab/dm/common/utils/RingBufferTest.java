@@ -0,0 +1,47 @@
+package com.codeabovelab.dm.common.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RingBufferTest {
+
+    @Test
+    public void test() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertEquals(Collections.emptyList(), buffer.snapshot());
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals(Arrays.asList(1, 2), buffer.snapshot());
+        buffer.add(3);
+        List<Integer> full = buffer.snapshot();
+        buffer.add(4);
+        buffer.add(5);
+        assertEquals(Arrays.asList(1, 2, 3), full);
+        assertEquals(Arrays.asList(3, 4, 5), buffer.snapshot());
+        assertEquals(3, buffer.size());
+        for(int i = 6; i < 100; ++i) {
+            buffer.add(i);
+        }
+        assertEquals(Arrays.asList(97, 98, 99), buffer.snapshot());
+    }
+
+    @Test
+    public void testCachedSnapshot() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        buffer.add(1);
+        List<Integer> first = buffer.snapshot();
+        assertSame(first, buffer.snapshot());
+        buffer.add(2);
+        List<Integer> second = buffer.snapshot();
+        assertNotSame(first, second);
+        assertEquals(Collections.singletonList(1), first);
+        assertEquals(Arrays.asList(1, 2), second);
+    }
+}
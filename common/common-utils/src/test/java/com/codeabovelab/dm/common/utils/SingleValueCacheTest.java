@@ -0,0 +1,102 @@
+package com.codeabovelab.dm.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleValueCacheTest {
+
+    @Test
+    public void testSync() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        SingleValueCache<Integer> cache = SingleValueCache.builder(counter::incrementAndGet)
+          .timeAfterWrite(50)
+          .build();
+        Assert.assertEquals((Integer)1, cache.get());
+        Assert.assertEquals((Integer)1, cache.get());
+        Thread.sleep(100);
+        Assert.assertEquals((Integer)2, cache.get());
+        Assert.assertEquals((Integer)1, cache.getOldValue());
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        SingleValueCache<Integer> cache = SingleValueCache.builder(counter::incrementAndGet)
+          .timeAfterWrite(50)
+          .refreshExecutor(tasks::add)
+          .build();
+        // first value is always loaded synchronously
+        Assert.assertEquals((Integer)1, cache.get());
+        Assert.assertTrue(tasks.isEmpty());
+        Thread.sleep(100);
+        // expired value is returned, and only one refresh is scheduled
+        Assert.assertEquals((Integer)1, cache.get());
+        Assert.assertEquals((Integer)1, cache.get());
+        Assert.assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        Assert.assertEquals((Integer)2, cache.get());
+        Assert.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testMaxStale() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        SingleValueCache<Integer> cache = SingleValueCache.builder(counter::incrementAndGet)
+          .timeAfterWrite(50)
+          .maxStale(10_000)
+          .refreshExecutor(tasks::add)
+          .build();
+        Assert.assertEquals((Integer)1, cache.get());
+        Thread.sleep(100);
+        Assert.assertEquals((Integer)1, cache.get());
+        Assert.assertEquals(1, tasks.size());
+
+        cache = SingleValueCache.builder(counter::incrementAndGet)
+          .timeAfterWrite(50)
+          .maxStale(50)
+          .refreshExecutor(tasks::add)
+          .build();
+        tasks.clear();
+        Assert.assertEquals((Integer)2, cache.get());
+        Thread.sleep(150);
+        // value which is too stale is loaded synchronously, even when refresh is not done
+        Assert.assertEquals((Integer)3, cache.get());
+        Assert.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testFailedRefresh() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        SingleValueCache<Integer> cache = SingleValueCache.builder(() -> {
+            int i = counter.incrementAndGet();
+            if(i == 2) {
+                throw new IllegalStateException("Fail");
+            }
+            return i == 3 ? null : i;
+        })
+          .timeAfterWrite(50)
+          .refreshExecutor(tasks::add)
+          .build();
+        Assert.assertEquals((Integer)1, cache.get());
+        Thread.sleep(100);
+        Assert.assertEquals((Integer)1, cache.get());
+        // failed refresh must leave stale value expired
+        tasks.remove(0).run();
+        Assert.assertEquals((Integer)1, cache.get());
+        Assert.assertEquals(1, tasks.size());
+        // null value is not stored too
+        tasks.remove(0).run();
+        Assert.assertEquals((Integer)1, cache.get());
+        Assert.assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        Assert.assertEquals((Integer)4, cache.get());
+        Assert.assertEquals((Integer)1, cache.getOldValue());
+    }
+}
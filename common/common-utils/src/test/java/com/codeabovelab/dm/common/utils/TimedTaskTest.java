@@ -0,0 +1,85 @@
+package com.codeabovelab.dm.common.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class TimedTaskTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void before() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testQueueTimeIsNotCounted() throws Exception {
+        TimedTask<String> slow = TimedTask.submit(executor, () -> {
+            Thread.sleep(300);
+            return "slow";
+        }, 5000);
+        // this task wait in queue longer than its timeout
+        TimedTask<String> queued = TimedTask.submit(executor, () -> "queued", 100);
+        assertEquals("queued", queued.get());
+        assertEquals("slow", slow.get());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        TimedTask<String> task = TimedTask.submit(executor, () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return "never";
+        }, 100);
+        try {
+            task.get();
+            fail("Timeout expected");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        // next task must be executed, because timed out task is interrupted
+        assertEquals("next", TimedTask.submit(executor, () -> "next", 1000).get());
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        TimedTask<String> slow = TimedTask.submit(executor, () -> {
+            Thread.sleep(10_000);
+            return "slow";
+        }, 10_000);
+        // this task can not start before deadline
+        TimedTask<String> queued = TimedTask.submit(executor, () -> "queued", 100);
+        long deadline = System.currentTimeMillis() + 300;
+        try {
+            queued.get(deadline);
+            fail("Timeout expected");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        assertTrue(System.currentTimeMillis() - deadline < 5_000);
+        try {
+            slow.get(deadline);
+            fail("Timeout expected");
+        } catch (TimeoutException e) {
+            // expected
+        }
+    }
+}
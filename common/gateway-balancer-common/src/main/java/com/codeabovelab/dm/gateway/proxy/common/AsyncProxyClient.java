@@ -19,6 +19,7 @@ package com.codeabovelab.dm.gateway.proxy.common;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 
 import java.io.IOException;
@@ -36,6 +37,11 @@ public class AsyncProxyClient implements ProxyClient {
         return proxyClient.execute(target, request, null).get();
     }
 
+    @Override
+    public void execute(HttpHost target, HttpRequest request, FutureCallback<HttpResponse> callback) {
+        proxyClient.execute(target, request, callback);
+    }
+
     @Override
     public void start() {
         proxyClient.start();
@@ -106,6 +106,12 @@ public class BalancerConfiguration {
     @Value("${balancer.socket.timeout:60000}")
     private Integer socketTimeout;
 
+    /**
+     * Max size of request body in bytes, body is read into memory before proxying, larger requests are rejected.
+     */
+    @Value("${balancer.request.maxBodySize:" + HttpProxy.DEFAULT_MAX_BODY_SIZE + "}")
+    private Long maxBodySize;
+
     /**
      * HttpClientMetricNameStrategies which contains only URL
      */
@@ -147,7 +153,9 @@ public class BalancerConfiguration {
                 proxyClient = new SyncProxyClient(configuredHttpClient(HttpClients.custom()));
             }
         }
-        return proxyInstance = new HttpProxy(proxyClient);
+        proxyInstance = new HttpProxy(proxyClient);
+        proxyInstance.setMaxBodySize(maxBodySize);
+        return proxyInstance;
     }
 
     protected CloseableHttpAsyncClient configuredHttpAsyncClient(HttpAsyncClientBuilder httpAsyncClientBuilder) {
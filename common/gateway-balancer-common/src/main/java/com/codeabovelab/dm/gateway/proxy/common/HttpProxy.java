@@ -19,6 +19,8 @@ package com.codeabovelab.dm.gateway.proxy.common;
 import com.codeabovelab.dm.common.utils.Closeables;
 import org.apache.http.*;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.message.*;
@@ -31,7 +33,9 @@ import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpCookie;
 import java.util.ArrayList;
@@ -52,13 +56,31 @@ public class HttpProxy implements AutoCloseable {
      */
     private final static boolean DO_SEND_URL_FRAGMENT = true;
 
+    /**
+     * Default value of {@link #setMaxBodySize(long)}.
+     */
+    public static final long DEFAULT_MAX_BODY_SIZE = 10 * 1024 * 1024;
+
     private final ProxyClient proxyClient;
+    private volatile long maxBodySize = DEFAULT_MAX_BODY_SIZE;
 
     public HttpProxy(ProxyClient proxyClient) {
         this.proxyClient = proxyClient;
 
     }
 
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Max size of request body which is read into memory by {@link #readEntity(HttpServletRequest)}.
+     * @param maxBodySize size in bytes
+     */
+    public void setMaxBodySize(long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
     @PostConstruct
     public void start() {
         proxyClient.start();
@@ -73,20 +95,98 @@ public class HttpProxy implements AutoCloseable {
         LOG.error(msg, e);
     }
 
-    @SuppressWarnings("deprecation")
     public void service(HttpProxyContext proxyContext) throws Exception {
+        HttpRequest proxyRequest = createProxyRequest(proxyContext);
+        HttpResponse proxyResponse = proxyClient.execute(proxyContext.getTargetHost(), proxyRequest);
+        writeResponse(proxyContext, proxyResponse);
+    }
+
+    /**
+     * Send request to target host without waiting of response. Response must be passed to
+     * {@link #writeResponse(HttpProxyContext, HttpResponse)} by callback. <p/>
+     * Body of request is sent from {@link HttpProxyContext#getEntity()}, when context has no entity then
+     * body is read into memory in current thread, so io threads of async client never block on servlet stream.
+     * @param proxyContext context of proxied request
+     * @param callback callback which is called when response is received, it may be called in other thread
+     * @throws Exception on error while request creation
+     */
+    public void execute(HttpProxyContext proxyContext, FutureCallback<HttpResponse> callback) throws Exception {
+        HttpEntity entity = proxyContext.getEntity();
+        if(entity == null) {
+            entity = readEntity(proxyContext.getRequest());
+        }
+        HttpRequest proxyRequest = createProxyRequest(proxyContext, entity);
+        proxyClient.execute(proxyContext.getTargetHost(), proxyRequest, callback);
+    }
+
+    /**
+     * Read body of servlet request into repeatable in-memory entity. It must be called in servlet thread, and
+     * its result may be reused for each retry of request.
+     * @param servletRequest request
+     * @return entity or null when request has no body
+     * @throws RequestBodyTooLargeException when body is larger than {@link #getMaxBodySize()}
+     * @throws IOException on error while reading of body
+     */
+    public HttpEntity readEntity(HttpServletRequest servletRequest) throws IOException {
+        if(!hasBody(servletRequest)) {
+            return null;
+        }
+        HttpEntity entity = createEntity(servletRequest);
+        if(entity.isRepeatable()) {
+            return entity;
+        }
+        return buffer(entity);
+    }
+
+    private HttpEntity buffer(HttpEntity entity) throws IOException {
+        final long maxBodySize = this.maxBodySize;
+        long length = entity.getContentLength();
+        if(length > maxBodySize) {
+            throw new RequestBodyTooLargeException("Body size " + length + " exceeds limit " + maxBodySize);
+        }
+        // body with chunked encoding has unknown length, so we check size while reading
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 ? (int) length : 4096);
+        try (InputStream in = entity.getContent()) {
+            byte[] buff = new byte[8192];
+            long total = 0;
+            int read;
+            while((read = in.read(buff)) >= 0) {
+                total += read;
+                if(total > maxBodySize) {
+                    throw new RequestBodyTooLargeException("Body size exceeds limit " + maxBodySize);
+                }
+                out.write(buff, 0, read);
+            }
+        }
+        ByteArrayEntity buffered = new ByteArrayEntity(out.toByteArray());
+        buffered.setContentType(entity.getContentType());
+        buffered.setContentEncoding(entity.getContentEncoding());
+        return buffered;
+    }
+
+    private HttpRequest createProxyRequest(HttpProxyContext proxyContext) throws IOException {
+        HttpServletRequest servletRequest = proxyContext.getRequest();
+        return createProxyRequest(proxyContext, hasBody(servletRequest) ? createEntity(servletRequest) : null);
+    }
+
+    /**
+     * spec: RFC 2616, sec 4.3: either of these two headers signal that there is a message body.
+     */
+    private static boolean hasBody(HttpServletRequest servletRequest) {
+        return servletRequest.getHeader(HttpHeaders.CONTENT_LENGTH) != null ||
+                servletRequest.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    private HttpRequest createProxyRequest(HttpProxyContext proxyContext, HttpEntity entity) throws IOException {
         final HttpServletRequest servletRequest = proxyContext.getRequest();
-        final HttpServletResponse servletResponse = proxyContext.getResponse();
         // Make the Request
         //note: we won't transfer the protocol version because I'm not sure it would truly be compatible
         String method = servletRequest.getMethod();
         String proxyRequestUri = rewriteUrlFromRequest(proxyContext);
         HttpRequest proxyRequest;
-        //spec: RFC 2616, sec 4.3: either of these two headers signal that there is a message body.
-        if (servletRequest.getHeader(HttpHeaders.CONTENT_LENGTH) != null ||
-                servletRequest.getHeader(HttpHeaders.TRANSFER_ENCODING) != null) {
+        if (entity != null) {
             HttpEntityEnclosingRequest requestWithBody = new BasicHttpEntityEnclosingRequest(method, proxyRequestUri);
-            requestWithBody.setEntity(createEntity(servletRequest));
+            requestWithBody.setEntity(entity);
             proxyRequest = requestWithBody;
         } else {
             proxyRequest = new BasicHttpRequest(method, proxyRequestUri);
@@ -96,15 +196,23 @@ public class HttpProxy implements AutoCloseable {
 
         setXForwardedForHeader(servletRequest, proxyRequest);
         setXUUIDHeader(proxyRequest, proxyContext);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("proxy " + method + " uri: " + servletRequest.getRequestURI() + " -- " + proxyRequest.getRequestLine().getUri());
+        }
+        return proxyRequest;
+    }
 
-        HttpResponse proxyResponse = null;
+    /**
+     * Copy response of target host to the servlet client.
+     * @param proxyContext context of proxied request
+     * @param proxyResponse response of target host
+     * @throws Exception on error
+     */
+    @SuppressWarnings("deprecation")
+    public void writeResponse(HttpProxyContext proxyContext, HttpResponse proxyResponse) throws Exception {
+        final HttpServletRequest servletRequest = proxyContext.getRequest();
+        final HttpServletResponse servletResponse = proxyContext.getResponse();
         try {
-            // Execute the request
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("proxy " + method + " uri: " + servletRequest.getRequestURI() + " -- " + proxyRequest.getRequestLine().getUri());
-            }
-            proxyResponse = proxyClient.execute(proxyContext.getTargetHost(), proxyRequest);
-
             // Process the response
             int statusCode = proxyResponse.getStatusLine().getStatusCode();
 
@@ -126,9 +234,7 @@ public class HttpProxy implements AutoCloseable {
 
         } finally {
             // make sure the entire entity was consumed, so the connection is released
-            if (proxyResponse != null) {
-                consumeQuietly(proxyResponse.getEntity());
-            }
+            consumeQuietly(proxyResponse.getEntity());
             //Note: Don't need to close servlet outputStream:
             // http://stackoverflow.com/questions/1159168/should-one-call-close-on-httpservletresponse-getoutputstream-getwriter
         }
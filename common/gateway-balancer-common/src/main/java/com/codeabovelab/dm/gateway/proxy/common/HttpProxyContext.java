@@ -16,6 +16,7 @@
 
 package com.codeabovelab.dm.gateway.proxy.common;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.springframework.util.Assert;
 
@@ -35,8 +36,17 @@ public final class HttpProxyContext {
     private final URI target;
     private final HttpHost targetHost;
     private final String uid;
+    private final HttpEntity entity;
 
     public HttpProxyContext(HttpServletRequest request, HttpServletResponse response, URI target, String uid) {
+        this(request, response, target, uid, null);
+    }
+
+    /**
+     * Create context with body which is already read from request.
+     * @see HttpProxy#readEntity(HttpServletRequest)
+     */
+    public HttpProxyContext(HttpServletRequest request, HttpServletResponse response, URI target, String uid, HttpEntity entity) {
         this.request = request;
         Assert.notNull(request, "request is null");
         this.response = response;
@@ -45,7 +55,7 @@ public final class HttpProxyContext {
         Assert.notNull(target, "target is null");
         this.targetHost = new HttpHost(target.getHost(), target.getPort(), target.getScheme());
         this.uid = uid;
-
+        this.entity = entity;
     }
 
     public HttpServletRequest getRequest() {
@@ -71,4 +81,12 @@ public final class HttpProxyContext {
     public String getUid() {
         return uid;
     }
+
+    /**
+     * Body of request which is read before proxying, may be null.
+     * @return entity or null
+     */
+    public HttpEntity getEntity() {
+        return entity;
+    }
 }
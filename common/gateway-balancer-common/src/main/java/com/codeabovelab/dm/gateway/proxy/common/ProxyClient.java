@@ -19,6 +19,7 @@ package com.codeabovelab.dm.gateway.proxy.common;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
 
 import java.io.Closeable;
 
@@ -27,5 +28,13 @@ public interface ProxyClient extends Closeable {
 
     HttpResponse execute(final HttpHost target, final HttpRequest request) throws Exception;
 
+    /**
+     * Execute request and pass result to callback. Callback may be called in other thread.
+     * @param target target host
+     * @param request request
+     * @param callback callback which receive response or error
+     */
+    void execute(final HttpHost target, final HttpRequest request, final FutureCallback<HttpResponse> callback);
+
     void start();
 }
@@ -19,6 +19,7 @@ package com.codeabovelab.dm.gateway.proxy.common;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.client.CloseableHttpClient;
 
 import java.io.IOException;
@@ -36,6 +37,18 @@ public class SyncProxyClient implements ProxyClient {
         return proxyClient.execute(target, request);
     }
 
+    @Override
+    public void execute(HttpHost target, HttpRequest request, FutureCallback<HttpResponse> callback) {
+        HttpResponse response;
+        try {
+            response = proxyClient.execute(target, request);
+        } catch (Exception e) {
+            callback.failed(e);
+            return;
+        }
+        callback.completed(response);
+    }
+
     @Override
     public void start() {
     }
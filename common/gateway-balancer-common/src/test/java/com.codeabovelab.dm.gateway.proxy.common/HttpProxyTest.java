@@ -1,8 +1,20 @@
 package com.codeabovelab.dm.gateway.proxy.common;
 
+import org.apache.http.*;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
 import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 
-import static org.junit.Assert.assertNotNull;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
 
 /**
  * Created by pronto on 1/18/16.
@@ -19,4 +31,99 @@ public class HttpProxyTest {
         assertNotNull(realCookie);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testExecute() throws Exception {
+        final String body = "{\"name\":\"test\"}";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/test");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.addHeader(HttpHeaders.CONTENT_LENGTH, body.length());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        CallbackProxyClient client = new CallbackProxyClient();
+        HttpProxy proxy = new HttpProxy(client);
+        HttpEntity entity = proxy.readEntity(request);
+        assertNotNull(entity);
+        // body must be read before request is passed to client
+        assertEquals(-1, request.getInputStream().read());
+
+        HttpProxyContext context = new HttpProxyContext(request, response, URI.create("http://upstream:8080/"), "uid", entity);
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        // execute twice like ribbon does on retry
+        for(int i = 0; i < 2; ++i) {
+            proxy.execute(context, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse result) {
+                    future.complete(result);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    future.completeExceptionally(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    future.cancel(false);
+                }
+            });
+            HttpEntityEnclosingRequest sent = (HttpEntityEnclosingRequest) client.request;
+            assertEquals("POST", sent.getRequestLine().getMethod());
+            assertEquals(body, EntityUtils.toString(sent.getEntity()));
+        }
+        assertEquals("uid", client.request.getFirstHeader(HttpProxyContext.REQUEST_UUID).getValue());
+
+        BasicHttpResponse upstreamResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        upstreamResponse.setEntity(new StringEntity("result"));
+        client.callback.completed(upstreamResponse);
+        proxy.writeResponse(context, future.get(1, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.SC_OK, response.getStatus());
+        assertEquals("result", response.getContentAsString());
+    }
+
+    @Test
+    public void testBodyTooLarge() throws Exception {
+        HttpProxy proxy = new HttpProxy(new CallbackProxyClient());
+        proxy.setMaxBodySize(4);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/test");
+        request.setContentType("application/octet-stream");
+        request.setContent(new byte[]{1, 2, 3, 4});
+        request.addHeader(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        assertEquals(4, proxy.readEntity(request).getContentLength());
+
+        request = new MockHttpServletRequest("POST", "/api/test");
+        request.setContentType("application/octet-stream");
+        request.setContent(new byte[]{1, 2, 3, 4, 5});
+        request.addHeader(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        try {
+            proxy.readEntity(request);
+            fail("Large body must be rejected");
+        } catch (RequestBodyTooLargeException e) {
+            // expected
+        }
+    }
+
+    private static class CallbackProxyClient implements ProxyClient {
+        private volatile HttpRequest request;
+        private volatile FutureCallback<HttpResponse> callback;
+
+        @Override
+        public HttpResponse execute(HttpHost target, HttpRequest request) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void execute(HttpHost target, HttpRequest request, FutureCallback<HttpResponse> callback) {
+            this.request = request;
+            this.callback = callback;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
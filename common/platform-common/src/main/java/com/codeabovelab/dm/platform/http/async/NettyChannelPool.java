@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.platform.http.async;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.SimpleChannelPool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Per host pool of keep-alive channels. <p/>
+ * It bound only count of idle channels, because docker streams (events, logs, stats) may hold channel for
+ * unlimited time and we can not make them wait for free slot. Excess channels is closed on release.
+ */
+class NettyChannelPool extends SimpleChannelPool {
+
+    private final String host;
+    private final int maxIdle;
+    private final AtomicInteger idle = new AtomicInteger();
+    private final Handler handler;
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+
+    /**
+     * @param host 'host:port' string used in metrics
+     * @param bootstrap bootstrap with configured remote address
+     * @param initializer invoked for each new channel, must configure its pipeline
+     * @param maxIdle max count of idle channels
+     */
+    NettyChannelPool(String host, Bootstrap bootstrap, Consumer<Channel> initializer, int maxIdle) {
+        this(host, bootstrap, new Handler(initializer), maxIdle);
+    }
+
+    private NettyChannelPool(String host, Bootstrap bootstrap, Handler handler, int maxIdle) {
+        super(bootstrap, handler, ChannelHealthChecker.ACTIVE, true);
+        this.handler = handler;
+        this.host = host;
+        this.maxIdle = maxIdle;
+    }
+
+    @Override
+    protected Channel pollChannel() {
+        Channel channel = super.pollChannel();
+        if(channel != null) {
+            idle.decrementAndGet();
+        }
+        return channel;
+    }
+
+    @Override
+    protected boolean offerChannel(Channel channel) {
+        if(idle.incrementAndGet() > maxIdle || !super.offerChannel(channel)) {
+            idle.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void onAcquired() {
+        acquired.incrementAndGet();
+    }
+
+    /**
+     * Return channel into pool, or close it when it not reusable.
+     * @param channel channel
+     * @param reuse false when response is not completed or server does not allow keep-alive
+     */
+    void release(Channel channel, boolean reuse) {
+        if(!reuse || !channel.isActive()) {
+            closed.incrementAndGet();
+            channel.close();
+            // closed channel does not pass health check and will be dropped by pool
+            release(channel);
+            return;
+        }
+        release(channel).addListener(future -> {
+            // pool fail release when it is full, but it close channel itself
+            if(future.isSuccess()) {
+                released.incrementAndGet();
+            } else {
+                closed.incrementAndGet();
+            }
+        });
+    }
+
+    NettyPoolMetrics getMetrics() {
+        return new NettyPoolMetrics(host, idle.get(), handler.created.get(), acquired.get(), released.get(), closed.get());
+    }
+
+    private static final class Handler extends AbstractChannelPoolHandler {
+        private final Consumer<Channel> initializer;
+        private final AtomicLong created = new AtomicLong();
+
+        Handler(Consumer<Channel> initializer) {
+            this.initializer = initializer;
+        }
+
+        @Override
+        public void channelCreated(Channel channel) throws Exception {
+            created.incrementAndGet();
+            initializer.accept(channel);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Code Above Lab LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.codeabovelab.dm.platform.http.async;
+
+import lombok.Data;
+
+/**
+ * Snapshot of keep-alive pool state for one host. <p/>
+ * 'acquired - created' is a count of requests which is reuse existed connection.
+ */
+@Data
+public class NettyPoolMetrics {
+    /**
+     * 'host:port' of pool
+     */
+    private final String host;
+    /**
+     * Count of channels which is waiting in pool for next request.
+     */
+    private final int idle;
+    /**
+     * Count of opened connections.
+     */
+    private final long created;
+    /**
+     * Count of channel acquisitions, each request acquire one channel.
+     */
+    private final long acquired;
+    /**
+     * Count of channels which is returned into pool after completed response.
+     */
+    private final long released;
+    /**
+     * Count of channels which is closed instead of returning into pool.
+     */
+    private final long closed;
+}
@@ -16,11 +16,12 @@
 
 package com.codeabovelab.dm.platform.http.async;
 
-import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import io.netty.handler.codec.http.*;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.client.AsyncClientHttpRequest;
@@ -44,7 +45,9 @@ import java.util.concurrent.ExecutionException;
 class NettyRequest implements ClientHttpRequest, AsyncClientHttpRequest {
     private final HttpHeaders headers = new HttpHeaders();
 
-    private final Bootstrap bootstrap;
+    private final NettyChannelPool pool;
+
+    private final int readTimeout;
 
     private final URI uri;
 
@@ -54,8 +57,9 @@ class NettyRequest implements ClientHttpRequest, AsyncClientHttpRequest {
 
     private boolean executed = false;
 
-    NettyRequest(Bootstrap bootstrap, URI uri, HttpMethod method) {
-        this.bootstrap = bootstrap;
+    NettyRequest(NettyChannelPool pool, int readTimeout, URI uri, HttpMethod method) {
+        this.pool = pool;
+        this.readTimeout = readTimeout;
         this.uri = uri;
         this.method = method;
         this.body = new ByteBufOutputStream(Unpooled.buffer(1024));
@@ -106,19 +110,25 @@ class NettyRequest implements ClientHttpRequest, AsyncClientHttpRequest {
     protected ListenableFuture<ClientHttpResponse> executeInternal(final HttpHeaders headers) throws IOException {
         final SettableListenableFuture<ClientHttpResponse> responseFuture = new SettableListenableFuture<>();
 
-        ChannelFutureListener connectionListener = future -> {
+        FutureListener<Channel> acquireListener = (Future<Channel> future) -> {
             if (future.isSuccess()) {
-                Channel channel = future.channel();
-                channel.pipeline().addLast(new NettyResponseHandler(responseFuture));
+                Channel channel = future.getNow();
+                this.pool.onAcquired();
+                NettyResponseHandler handler = new NettyResponseHandler(responseFuture, this.pool);
+                handler.attach(channel, this.readTimeout);
                 FullHttpRequest nettyRequest = createFullHttpRequest(headers);
-                channel.writeAndFlush(nettyRequest);
+                channel.writeAndFlush(nettyRequest).addListener((ChannelFutureListener) wf -> {
+                    if(!wf.isSuccess()) {
+                        handler.fail(wf.cause());
+                    }
+                });
             }
             else {
                 responseFuture.setException(future.cause());
             }
         };
 
-        this.bootstrap.connect(this.uri.getHost(), getPort(this.uri)).addListener(connectionListener);
+        this.pool.acquire().addListener(acquireListener);
 
         return responseFuture;
     }
@@ -140,7 +150,7 @@ class NettyRequest implements ClientHttpRequest, AsyncClientHttpRequest {
         }
     }
 
-    private static int getPort(URI uri) {
+    static int getPort(URI uri) {
         int port = uri.getPort();
         if (port == -1) {
             if ("http".equalsIgnoreCase(uri.getScheme())) {
@@ -161,7 +171,7 @@ class NettyRequest implements ClientHttpRequest, AsyncClientHttpRequest {
 
         io.netty.handler.codec.http.HttpHeaders nettyHeaders = nettyRequest.headers();
         nettyHeaders.set(HttpHeaders.HOST, this.uri.getHost());
-        nettyHeaders.set(HttpHeaders.CONNECTION, "close");
+        nettyHeaders.set(HttpHeaders.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
 
         for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
             nettyHeaders.add(entry.getKey(), entry.getValue());
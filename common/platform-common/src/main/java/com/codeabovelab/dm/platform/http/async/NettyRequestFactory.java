@@ -17,11 +17,12 @@
 package com.codeabovelab.dm.platform.http.async;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelInitializer;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.SocketChannelConfig;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpClientCodec;
@@ -34,12 +35,18 @@ import org.springframework.http.client.*;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URI;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * We create our factory implementation based on {@link org.springframework.http.client.Netty4ClientHttpRequestFactory }
  * due to need consume of endless stream with "TransferEncoding: chunked", which default implementation does not allow.
+ * <p/>
+ * Factory hold per host pool of keep-alive channels, see {@link #setMaxIdleConnectionsPerHost(int)}.
  */
 public class NettyRequestFactory implements ClientHttpRequestFactory,
   AsyncClientHttpRequestFactory, InitializingBean, DisposableBean {
@@ -55,8 +62,14 @@ public class NettyRequestFactory implements ClientHttpRequestFactory,
 
     private int readTimeout = -1;
 
+    private int maxIdleConnectionsPerHost = 8;
+
+    private ByteBufAllocator allocator;
+
     private volatile Bootstrap bootstrap;
 
+    private final ConcurrentMap<String, NettyChannelPool> pools = new ConcurrentHashMap<>();
+
 
     /**
      * Create a new {@code Netty4ClientHttpRequestFactory} with a default
@@ -107,31 +120,71 @@ public class NettyRequestFactory implements ClientHttpRequestFactory,
         this.readTimeout = readTimeout;
     }
 
+    public int getMaxIdleConnectionsPerHost() {
+        return maxIdleConnectionsPerHost;
+    }
+
+    /**
+     * Set max count of idle keep-alive connections which is hold for each host. Note that it does not
+     * limit count of concurrent connections, because docker streams may hold connection for unlimited time.
+     * Zero value disable reusing of connections.
+     * <p>Default is 8.
+     */
+    public void setMaxIdleConnectionsPerHost(int maxIdleConnectionsPerHost) {
+        Assert.isTrue(maxIdleConnectionsPerHost >= 0, "maxIdleConnectionsPerHost is negative");
+        this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+    }
+
+    /**
+     * Set allocator for channels, it useful when many factories share one event loop group.
+     * <p>By default netty use its default allocator.
+     */
+    public void setAllocator(ByteBufAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    /**
+     * Metrics of keep-alive pools, one item per host.
+     * @return list of metrics snapshots
+     */
+    public List<NettyPoolMetrics> getPoolMetrics() {
+        List<NettyPoolMetrics> list = new ArrayList<>(pools.size());
+        pools.values().forEach(pool -> list.add(pool.getMetrics()));
+        return list;
+    }
+
     private Bootstrap getBootstrap() {
         if (this.bootstrap == null) {
             Bootstrap bootstrap = new Bootstrap();
-            bootstrap.group(this.eventLoopGroup).channel(NioSocketChannel.class)
-              .handler(new ChannelInitializer<SocketChannel>() {
-                  @Override
-                  protected void initChannel(SocketChannel channel) throws Exception {
-                      configureChannel(channel.config());
-                      ChannelPipeline pipeline = channel.pipeline();
-                      if (sslContext != null) {
-                          pipeline.addLast(sslContext.newHandler(channel.alloc()));
-                      }
-                      pipeline.addLast(new HttpClientCodec());
-                      //pipeline.addLast(new HttpObjectAggregator(maxResponseSize));
-                      if (readTimeout > 0) {
-                          pipeline.addLast(new ReadTimeoutHandler(readTimeout,
-                            TimeUnit.MILLISECONDS));
-                      }
-                  }
-              });
+            bootstrap.group(this.eventLoopGroup).channel(NioSocketChannel.class);
+            if (this.allocator != null) {
+                bootstrap.option(ChannelOption.ALLOCATOR, this.allocator);
+            }
             this.bootstrap = bootstrap;
         }
         return this.bootstrap;
     }
 
+    private NettyChannelPool getPool(URI uri) {
+        String host = uri.getHost();
+        int port = NettyRequest.getPort(uri);
+        return pools.computeIfAbsent(host + ":" + port, (key) -> {
+            Bootstrap bootstrap = getBootstrap().clone().remoteAddress(InetSocketAddress.createUnresolved(host, port));
+            return new NettyChannelPool(key, bootstrap, this::initChannel, maxIdleConnectionsPerHost);
+        });
+    }
+
+    private void initChannel(Channel channel) {
+        configureChannel((SocketChannelConfig) channel.config());
+        ChannelPipeline pipeline = channel.pipeline();
+        if (sslContext != null) {
+            pipeline.addLast(sslContext.newHandler(channel.alloc()));
+        }
+        pipeline.addLast(new HttpClientCodec());
+        //pipeline.addLast(new HttpObjectAggregator(maxResponseSize));
+        // read timeout handler is added for each request, otherwise it will close idle channels
+    }
+
     /**
      * Template method for changing properties on the given {@link SocketChannelConfig}.
      * <p>The default implementation sets the connect timeout based on the set property.
@@ -160,12 +213,14 @@ public class NettyRequestFactory implements ClientHttpRequestFactory,
     }
 
     private NettyRequest createRequestInternal(URI uri, HttpMethod httpMethod) {
-        return new NettyRequest(getBootstrap(), uri, httpMethod);
+        return new NettyRequest(getPool(uri), readTimeout, uri, httpMethod);
     }
 
 
     @Override
     public void destroy() throws InterruptedException {
+        pools.values().forEach(NettyChannelPool::close);
+        pools.clear();
         if (this.defaultEventLoopGroup) {
             // Clean up the EventLoopGroup if we created it in the constructor
             this.eventLoopGroup.shutdownGracefully().sync();
@@ -16,7 +16,6 @@
 
 package com.codeabovelab.dm.platform.http.async;
 
-import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -32,7 +31,7 @@ import java.util.Map;
  * due to need consume of endless stream with "TransferEncoding: chunked", which default implementation does not allow.
  */
 class NettyResponse implements ClientHttpResponse {
-    private final ChannelHandlerContext context;
+    private final NettyResponseHandler handler;
 
     private final HttpResponse nettyResponse;
 
@@ -41,10 +40,10 @@ class NettyResponse implements ClientHttpResponse {
     private volatile HttpHeaders headers;
 
 
-    NettyResponse(ChannelHandlerContext context, HttpResponse nettyResponse, InputStream body) {
-        Assert.notNull(context, "ChannelHandlerContext must not be null");
+    NettyResponse(NettyResponseHandler handler, HttpResponse nettyResponse, InputStream body) {
+        Assert.notNull(handler, "NettyResponseHandler must not be null");
         Assert.notNull(nettyResponse, "FullHttpResponse must not be null");
-        this.context = context;
+        this.handler = handler;
         this.nettyResponse = nettyResponse;
         this.body = body;
     }
@@ -85,7 +84,8 @@ class NettyResponse implements ClientHttpResponse {
 
     @Override
     public void close() {
-        this.context.close();
+        // completed response already return channel into pool, otherwise channel will be closed
+        this.handler.abort();
     }
 
 }
@@ -16,35 +16,66 @@
 
 package com.codeabovelab.dm.platform.http.async;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.concurrent.SettableListenableFuture;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * Handler which live in channel pipeline only while one request. When response is completed it remove self from
+ * pipeline and return channel into pool.
  */
 class NettyResponseHandler extends SimpleChannelInboundHandler<HttpObject> {
 
+    private static final String READ_TIMEOUT = "readTimeout";
     private final SettableListenableFuture<ClientHttpResponse> responseFuture;
     private final ChunkedInputStream<ByteBufHolder> in = new ChunkedInputStream<>(ByteBufHolderAdapter.INSTANCE);
+    private final NettyChannelPool pool;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile Channel channel;
+    private volatile boolean keepAlive;
 
-    NettyResponseHandler(SettableListenableFuture<ClientHttpResponse> responseFuture) throws IOException {
+    NettyResponseHandler(SettableListenableFuture<ClientHttpResponse> responseFuture, NettyChannelPool pool) throws IOException {
         this.responseFuture = responseFuture;
+        this.pool = pool;
+    }
+
+    /**
+     * Add this handler to pipeline of acquired channel.
+     * @param channel channel
+     * @param readTimeout read timeout in milliseconds, non positive values mean infinite timeout
+     */
+    void attach(Channel channel, int readTimeout) {
+        this.channel = channel;
+        ChannelPipeline pipeline = channel.pipeline();
+        if (readTimeout > 0) {
+            pipeline.addLast(READ_TIMEOUT, new ReadTimeoutHandler(readTimeout, TimeUnit.MILLISECONDS));
+        }
+        pipeline.addLast(this);
     }
 
     @Override
     protected void channelRead0(ChannelHandlerContext context, HttpObject response) throws Exception {
         if(response instanceof HttpResponse) {
-            this.responseFuture.set(new NettyResponse(context, (HttpResponse) response, in));
+            HttpResponse httpResponse = (HttpResponse) response;
+            this.keepAlive = HttpUtil.isKeepAlive(httpResponse);
+            this.responseFuture.set(new NettyResponse(this, httpResponse, in));
         } else if(response instanceof HttpContent) {
             HttpContent cont = (HttpContent) response;
             in.add(cont);
             if(response instanceof LastHttpContent) {
+                // all data of response is in stream, so we can give channel to other requests,
+                // it must be done before end of stream, otherwise consumer can close response and channel
+                finish(keepAlive);
                 in.end();
             }
         } else {
@@ -52,9 +83,45 @@ class NettyResponseHandler extends SimpleChannelInboundHandler<HttpObject> {
         }
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext context) throws Exception {
+        this.responseFuture.setException(new IOException("Channel closed before response."));
+        in.end();
+        finish(false);
+        super.channelInactive(context);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext context, Throwable cause) throws Exception {
+        fail(cause);
+    }
+
+    void fail(Throwable cause) {
         this.responseFuture.setException(cause);
+        in.end();
+        finish(false);
+    }
+
+    /**
+     * Invoked when consumer close response. If response is not completed then channel can not be reused.
+     */
+    void abort() {
+        finish(false);
+    }
+
+    private void finish(boolean reuse) {
+        Channel channel = this.channel;
+        if(channel == null || !finished.compareAndSet(false, true)) {
+            return;
+        }
+        if(reuse) {
+            ChannelPipeline pipeline = channel.pipeline();
+            if(pipeline.get(READ_TIMEOUT) != null) {
+                pipeline.remove(READ_TIMEOUT);
+            }
+            pipeline.remove(this);
+        }
+        pool.release(channel, reuse);
     }
 
 }
@@ -0,0 +1,92 @@
+package com.codeabovelab.dm.platform.http.async;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test of keep-alive pool against local http stub.
+ */
+public class NettyRequestFactoryTest {
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private NioEventLoopGroup serverGroup;
+    private Channel serverChannel;
+    private NettyRequestFactory factory;
+
+    @Before
+    public void before() throws Exception {
+        serverGroup = new NioEventLoopGroup(1);
+        serverChannel = new ServerBootstrap()
+          .group(serverGroup)
+          .channel(NioServerSocketChannel.class)
+          .childHandler(new ChannelInitializer<SocketChannel>() {
+              @Override
+              protected void initChannel(SocketChannel ch) throws Exception {
+                  connections.incrementAndGet();
+                  ch.pipeline().addLast(new HttpServerCodec(), new HttpObjectAggregator(1024), new EchoHandler());
+              }
+          })
+          .bind("127.0.0.1", 0).sync().channel();
+        factory = new NettyRequestFactory();
+        factory.afterPropertiesSet();
+    }
+
+    @After
+    public void after() throws Exception {
+        factory.destroy();
+        serverChannel.close().sync();
+        serverGroup.shutdownGracefully().sync();
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+        URI uri = URI.create("http://127.0.0.1:" + port + "/test");
+        final int count = 10;
+        for(int i = 0; i < count; ++i) {
+            ClientHttpRequest request = factory.createRequest(uri, HttpMethod.GET);
+            try(ClientHttpResponse response = request.execute()) {
+                assertEquals(200, response.getRawStatusCode());
+                assertEquals("/test", StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(1, connections.get());
+        List<NettyPoolMetrics> metrics = factory.getPoolMetrics();
+        assertEquals(1, metrics.size());
+        NettyPoolMetrics pm = metrics.get(0);
+        assertEquals(1, pm.getCreated());
+        assertEquals(count, pm.getAcquired());
+    }
+
+    private static class EchoHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest msg) throws Exception {
+            byte[] bytes = new QueryStringDecoder(URI.create(msg.uri())).path().getBytes(StandardCharsets.UTF_8);
+            FullHttpResponse resp = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+              Unpooled.wrappedBuffer(bytes));
+            HttpUtil.setContentLength(resp, bytes.length);
+            HttpUtil.setKeepAlive(resp, HttpUtil.isKeepAlive(msg));
+            ctx.writeAndFlush(resp);
+        }
+    }
+}